@@ -0,0 +1,124 @@
+package com.dailycodework.dreamshops.mapper;
+
+import com.dailycodework.dreamshops.dto.OrderDto;
+import com.dailycodework.dreamshops.dto.ProductDto;
+import com.dailycodework.dreamshops.dto.UserDto;
+import com.dailycodework.dreamshops.enums.OrderStatus;
+import com.dailycodework.dreamshops.model.Cart;
+import com.dailycodework.dreamshops.model.CartItem;
+import com.dailycodework.dreamshops.model.Category;
+import com.dailycodework.dreamshops.model.Order;
+import com.dailycodework.dreamshops.model.OrderItem;
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.model.User;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// конвертация в DTO: прежний ModelMapper (рефлексия) и мапперы из пакета mapper
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoMapperBenchmark {
+    // размер страницы товаров в списках каталога
+    private static final int PRODUCTS = 20;
+
+    private ModelMapper modelMapper;
+    private ProductMapper productMapper;
+    private OrderMapper orderMapper;
+    private UserMapper userMapper;
+
+    private List<Product> products;
+    private Order order;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        // настройка прежнего бина ModelMapperConfig
+        modelMapper = new ModelMapper();
+        modelMapper.typeMap(Product.class, ProductDto.class)
+                .addMappings(mapper -> mapper.skip(ProductDto::setImages));
+
+        productMapper = new ProductMapper();
+        orderMapper = new OrderMapper();
+        userMapper = new UserMapper(orderMapper, new CartMapper(productMapper));
+
+        Category category = new Category("Some category");
+        category.setId(1L);
+        products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product("Product " + i, "Some brand", new BigDecimal("10.00"), 100,
+                    "Some description", category);
+            product.setId((long) i);
+            products.add(product);
+        }
+
+        user = new User();
+        user.setId(1L);
+        user.setFirstName("First Name");
+        user.setLastName("Last Name");
+        user.setEmail("user@email.com");
+
+        order = new Order();
+        order.setOrderId(1L);
+        order.setOrderDate(LocalDate.of(2024, 1, 1));
+        order.setOrderStatus(OrderStatus.PENDING);
+        order.setUser(user);
+        Set<OrderItem> orderItems = new HashSet<>();
+        for (int i = 0; i < 5; i++)
+            orderItems.add(new OrderItem(order, products.get(i), 1, products.get(i).getPrice()));
+        order.setOrderItems(orderItems);
+        order.setTotalAmount(new BigDecimal("50.00"));
+        user.setOrders(List.of(order));
+
+        Cart cart = new Cart();
+        cart.setId(1L);
+        for (int i = 0; i < 5; i++)
+            cart.addProduct(products.get(i), 2);
+        user.setCart(cart);
+    }
+
+    @Benchmark
+    public List<ProductDto> productPage() {
+        return products.stream().map(product -> productMapper.toDto(product, List.of())).toList();
+    }
+
+    @Benchmark
+    public List<ProductDto> productPageModelMapper() {
+        return products.stream().map(product -> {
+            ProductDto productDto = modelMapper.map(product, ProductDto.class);
+            productDto.setImages(List.of());
+            return productDto;
+        }).toList();
+    }
+
+    @Benchmark
+    public OrderDto order() {
+        return orderMapper.toDto(order);
+    }
+
+    @Benchmark
+    public OrderDto orderModelMapper() {
+        return modelMapper.map(order, OrderDto.class);
+    }
+
+    @Benchmark
+    public UserDto user() {
+        return userMapper.toDto(user);
+    }
+
+    @Benchmark
+    public UserDto userModelMapper() {
+        return modelMapper.map(user, UserDto.class);
+    }
+}
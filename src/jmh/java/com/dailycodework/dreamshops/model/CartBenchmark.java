@@ -0,0 +1,50 @@
+package com.dailycodework.dreamshops.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// общая сумма корзины: пересчет по всем позициям (setItems) и поправка на разницу при изменении одной позиции
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CartBenchmark {
+    @Param({"5", "50"})
+    private int items;
+
+    private Cart cart;
+    private CartItem item;
+    private Set<CartItem> cartItems;
+    private int quantity;
+
+    @Setup
+    public void setUp() {
+        cart = new Cart();
+        for (int i = 0; i < items; i++) {
+            Product product = new Product("Product " + i, "Some brand", new BigDecimal("10.99"), 100,
+                    "Some description", null);
+            product.setId((long) i);
+            cart.addProduct(product, 1);
+        }
+        item = cart.findItem(0L).orElseThrow();
+        cartItems = new HashSet<>(cart.getItems());
+    }
+
+    @Benchmark
+    public BigDecimal recalculateTotal() {
+        cart.setItems(cartItems);
+        return cart.getTotalAmount();
+    }
+
+    @Benchmark
+    public BigDecimal updateItemQuantity() {
+        cart.updateItemQuantity(item, ++quantity % 10 + 1);
+        return cart.getTotalAmount();
+    }
+}
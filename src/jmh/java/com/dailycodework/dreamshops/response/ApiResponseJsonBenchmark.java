@@ -0,0 +1,63 @@
+package com.dailycodework.dreamshops.response;
+
+import com.dailycodework.dreamshops.dto.ImageDto;
+import com.dailycodework.dreamshops.dto.ProductDto;
+import com.dailycodework.dreamshops.dto.ProductPageDto;
+import com.dailycodework.dreamshops.enums.ImageSize;
+import com.dailycodework.dreamshops.model.Category;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// сериализация ответа со страницей товаров в JSON, ObjectMapper настроен как в приложении (Jackson2ObjectMapperBuilder)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApiResponseJsonBenchmark {
+    @Param({"20", "100"})
+    private int products;
+
+    private ObjectMapper objectMapper;
+    private ApiResponse response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        Category category = new Category("Some category");
+        category.setId(1L);
+        List<ProductDto> productDtos = new ArrayList<>();
+        for (int i = 0; i < products; i++) {
+            ProductDto productDto = new ProductDto();
+            productDto.setId((long) i);
+            productDto.setName("Product " + i);
+            productDto.setBrand("Some brand");
+            productDto.setPrice(new BigDecimal("10.00"));
+            productDto.setInventory(100);
+            productDto.setDescription("Some description");
+            productDto.setCategory(category);
+
+            ImageDto imageDto = new ImageDto();
+            imageDto.setId((long) i);
+            imageDto.setFileName("image.png");
+            imageDto.setDownloadUrl("/api/v1/images/image/download/" + i);
+            imageDto.setVariantUrls(ImageSize.variantUrls(imageDto.getDownloadUrl()));
+            productDto.setImages(List.of(imageDto));
+            productDtos.add(productDto);
+        }
+        response = new ApiResponse("success", new ProductPageDto(productDtos, 0, products, true, null));
+    }
+
+    @Benchmark
+    public byte[] productPage() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,54 @@
+package com.dailycodework.dreamshops.security.jwt;
+
+import com.dailycodework.dreamshops.security.user.ShopUserDetails;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// запрос с токеном через AuthTokenFilter в режиме auth.principal.source=claims (без обращения к БД)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthTokenFilterBenchmark {
+    private static final String SECRET = "36763979244226452948404D635166546A576D5A7134743777217A25432A462D";
+
+    private AuthTokenFilter authTokenFilter;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        JwtUtils jwtUtils = new JwtUtils(SECRET, 36000000);
+        ShopUserDetails userDetails = new ShopUserDetails(1L, "user@email.com", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        String token = jwtUtils.generateTokenForUser(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+
+        authTokenFilter = new AuthTokenFilter();
+        ReflectionTestUtils.setField(authTokenFilter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(authTokenFilter, "principalSource", "claims");
+
+        request = new MockHttpServletRequest("GET", "/api/v1/carts/1/my-cart");
+        request.addHeader("Authorization", "Bearer " + token);
+    }
+
+    @Benchmark
+    public Object doFilterInternal() throws Exception {
+        try {
+            authTokenFilter.doFilterInternal(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
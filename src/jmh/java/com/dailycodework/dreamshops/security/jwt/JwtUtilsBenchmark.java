@@ -0,0 +1,71 @@
+package com.dailycodework.dreamshops.security.jwt;
+
+import com.dailycodework.dreamshops.security.user.ShopUserDetails;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// выдача токена при входе и путь AuthTokenFilter по токену: до (ключ строится и токен разбирается три раза) и после (один разбор)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilsBenchmark {
+    private static final String SECRET = "36763979244226452948404D635166546A576D5A7134743777217A25432A462D";
+
+    private JwtUtils jwtUtils;
+    private ShopUserDetails userDetails;
+    private UsernamePasswordAuthenticationToken authentication;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils(SECRET, 36000000);
+        userDetails = new ShopUserDetails(1L, "user@email.com", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        token = jwtUtils.generateTokenForUser(authentication);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtils.generateTokenForUser(authentication);
+    }
+
+    @Benchmark
+    public boolean filterPath() {
+        Claims claims = jwtUtils.parseToken(token);
+        return claims.getSubject() != null && jwtUtils.validateToken(claims, userDetails);
+    }
+
+    @Benchmark
+    public boolean legacyFilterPath() {
+        String username = legacyExtractClaim(token, Claims::getSubject);
+        return username != null
+                && legacyExtractClaim(token, Claims::getSubject).equals(userDetails.getUsername())
+                && !legacyExtractClaim(token, Claims::getExpiration).before(new Date());
+    }
+
+    // прежняя реализация JwtUtils: ключ и парсер создавались заново при каждом обращении к токену
+    private static <T> T legacyExtractClaim(String token, Function<Claims, T> claimResolver) {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        Claims claims = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+        return claimResolver.apply(claims);
+    }
+}
@@ -0,0 +1,69 @@
+package com.dailycodework.dreamshops.service.product;
+
+import com.dailycodework.dreamshops.dto.ProductDto;
+import com.dailycodework.dreamshops.mapper.ImageMapper;
+import com.dailycodework.dreamshops.mapper.ProductMapper;
+import com.dailycodework.dreamshops.model.Category;
+import com.dailycodework.dreamshops.model.Image;
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.repository.ImageRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// конвертация страницы товаров в DTO (getConvertedProducts): группировка изображений по товарам и маппинг,
+// репозиторий изображений заменен заглушкой с готовым результатом запроса
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductServiceImplBenchmark {
+    @Param({"20", "100"})
+    private int products;
+
+    private ProductServiceImpl productService;
+    private List<Product> page;
+
+    @Setup
+    public void setUp() {
+        Category category = new Category("Some category");
+        category.setId(1L);
+        page = new ArrayList<>();
+        List<Image> images = new ArrayList<>();
+        for (int i = 0; i < products; i++) {
+            Product product = new Product("Product " + i, "Some brand", new BigDecimal("10.00"), 100,
+                    "Some description", category);
+            product.setId((long) i);
+            page.add(product);
+            for (int j = 0; j < 2; j++) {
+                Image image = new Image();
+                image.setId((long) (i * 2 + j));
+                image.setFileName("image" + j + ".png");
+                image.setDownloadUrl("/api/v1/images/image/download/" + image.getId());
+                image.setProduct(product);
+                images.add(image);
+            }
+        }
+
+        ImageRepository imageRepository = (ImageRepository) Proxy.newProxyInstance(
+                ImageRepository.class.getClassLoader(), new Class<?>[]{ImageRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findByProductIdIn"))
+                        return images;
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        productService = new ProductServiceImpl(null, null, new ProductMapper(), new ImageMapper(), imageRepository, null,
+                null);
+    }
+
+    @Benchmark
+    public List<ProductDto> getConvertedProducts() {
+        return productService.getConvertedProducts(page);
+    }
+}
@@ -0,0 +1,44 @@
+package com.dailycodework.dreamshops.service.search;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// подсказки по префиксу из дерева с products товарами: короткий префикс (много совпадений) и длинный
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SuggestionTrieBenchmark {
+    private static final String[] BRANDS = {"Samsung", "Apple", "Dell", "HP", "Lenovo", "Sony", "LG", "Xiaomi"};
+    private static final String[] MODELS = {"Galaxy", "iPhone", "Inspiron", "Envy", "ThinkPad", "Bravia", "Gram", "Redmi"};
+
+    @Param({"1000", "100000"})
+    private int products;
+
+    private SuggestionTrie trie;
+
+    @Setup
+    public void setUp() {
+        List<SuggestionTrie.Suggestion> suggestions = new ArrayList<>();
+        for (int i = 0; i < products; i++)
+            suggestions.add(new SuggestionTrie.Suggestion(MODELS[i % MODELS.length] + " " + i, i % 97 + 1));
+        for (String brand : BRANDS)
+            suggestions.add(new SuggestionTrie.Suggestion(brand, products));
+        trie = SuggestionTrie.build(suggestions);
+    }
+
+    @Benchmark
+    public List<SuggestionTrie.Suggestion> shortPrefix() {
+        return trie.suggest("g", 10);
+    }
+
+    @Benchmark
+    public List<SuggestionTrie.Suggestion> longPrefix() {
+        return trie.suggest("galaxy 12", 10);
+    }
+}
@@ -0,0 +1,16 @@
+package com.dailycodework.dreamshops.config;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.UUID;
+
+public class CaffeineRegionFactory extends JCacheRegionFactory {
+
+    @Override
+    protected URI getUri(SessionFactoryOptions settings, Map<String, Object> properties) {
+        return URI.create("dreamshops:" + UUID.randomUUID());
+    }
+}
@@ -0,0 +1,106 @@
+package com.dailycodework.dreamshops.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ConnectionLimitingDataSource extends DelegatingDataSource {
+    private final Semaphore permits;
+    private final long timeoutMillis;
+    private final ThreadLocal<OpenConnections> openConnections = ThreadLocal.withInitial(OpenConnections::new);
+
+    public ConnectionLimitingDataSource(DataSource targetDataSource, int maxThreads, long timeoutMillis) {
+        super(targetDataSource);
+        if (maxThreads < 1)
+            throw new IllegalArgumentException("At least one thread must be able to get a connection");
+        this.permits = new Semaphore(maxThreads, true);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return limit(() -> obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return limit(() -> obtainTargetDataSource().getConnection(username, password));
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    // соединения держат не больше maxThreads потоков; второе соединение потока выдается без очереди
+    private Connection limit(ConnectionSupplier supplier) throws SQLException {
+        OpenConnections open = openConnections.get();
+        if (open.count == 0)
+            acquirePermit();
+        try {
+            Connection connection = supplier.get();
+            open.count++;
+            return wrap(connection, open);
+        } catch (SQLException | RuntimeException e) {
+            if (open.count == 0)
+                permits.release();
+            throw e;
+        }
+    }
+
+    private void acquirePermit() throws SQLException {
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS))
+                throw new SQLTransientConnectionException(
+                        "Connection is not available, request timed out after " + timeoutMillis + "ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    // разрешение возвращается, когда закрыто последнее открытое соединение потока, в любом порядке
+    private Connection wrap(Connection target, OpenConnections open) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "close" -> {
+                        try {
+                            target.close();
+                        } finally {
+                            if (closed.compareAndSet(false, true) && --open.count == 0)
+                                permits.release();
+                        }
+                        yield null;
+                    }
+                    default -> invoke(target, method, args);
+                });
+    }
+
+    private static Object invoke(Connection target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+
+    private static final class OpenConnections {
+        private int count;
+    }
+}
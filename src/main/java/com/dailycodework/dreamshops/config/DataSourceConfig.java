@@ -0,0 +1,24 @@
+package com.dailycodework.dreamshops.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class DataSourceConfig {
+
+    // последнее соединение пула остается для второго соединения потока (блок id, REQUIRES_NEW)
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource && dataSource.getMaximumPoolSize() > 1)
+                    return new ConnectionLimitingDataSource(dataSource,
+                            dataSource.getMaximumPoolSize() - 1, dataSource.getConnectionTimeout());
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.dailycodework.dreamshops.config;
+
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(retryFor = ConcurrencyFailureException.class,
+        maxAttemptsExpression = "${retry.concurrent-update.max-attempts:5}",
+        backoff = @Backoff(delayExpression = "${retry.concurrent-update.delay:20}",
+                maxDelayExpression = "${retry.concurrent-update.max-delay:500}",
+                multiplier = 2, random = true))
+public @interface RetryOnConcurrentUpdate {
+}
@@ -0,0 +1,26 @@
+package com.dailycodework.dreamshops.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+    private final EntityManagerFactory entityManagerFactory;
+    @Value("${api.prefix}")
+    private String apiPrefix;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+        interceptor.setEntityManagerFactory(entityManagerFactory);
+        // загрузка изображения медленным клиентом не держит соединение до конца запроса
+        registry.addWebRequestInterceptor(interceptor)
+                .excludePathPatterns(apiPrefix + "/images/image/download/**");
+    }
+}
@@ -1,8 +1,11 @@
 package com.dailycodework.dreamshops.controller;
 
+import com.dailycodework.dreamshops.dto.CartDto;
+import com.dailycodework.dreamshops.exceptions.ProductNotFoundException;
 import com.dailycodework.dreamshops.exceptions.ResourceNotFoundException;
 import com.dailycodework.dreamshops.model.Cart;
 import com.dailycodework.dreamshops.model.User;
+import com.dailycodework.dreamshops.request.CartItemRequest;
 import com.dailycodework.dreamshops.response.ApiResponse;
 import com.dailycodework.dreamshops.service.cart.CartItemService;
 import com.dailycodework.dreamshops.service.cart.CartService;
@@ -12,6 +15,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 import static org.springframework.http.HttpStatus.UNAUTHORIZED;
 
@@ -40,6 +46,25 @@ public class CartItemController {
         }
     }
 
+    // добавление нескольких позиций за один запрос (восстановление сохраненной корзины, повтор заказа)
+    @PostMapping("/items/add")
+    public ResponseEntity<ApiResponse> addItemsToCart(@RequestBody List<CartItemRequest> items) {
+        try {
+            User user = userService.getAuthenticatedUser();
+            Cart cart = cartService.initializeNewCart(user);
+
+            Cart updatedCart = cartItemService.addItemsToCart(cart.getId(), items);
+            CartDto cartDto = cartService.convertToDto(updatedCart);
+            return ResponseEntity.ok(new ApiResponse("Add Items Success", cartDto));
+        } catch (ResourceNotFoundException | ProductNotFoundException e) {
+            return ResponseEntity.status(NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        } catch (JwtException e){
+            return ResponseEntity.status(UNAUTHORIZED).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
     @DeleteMapping("/cart/{cartId}/item/{itemId}/remove")
     public ResponseEntity<ApiResponse> removeItemFromCart(@PathVariable Long cartId, @PathVariable Long itemId) {
         try {
@@ -0,0 +1,42 @@
+package com.dailycodework.dreamshops.controller;
+
+import com.dailycodework.dreamshops.response.ApiResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
+
+final class CatalogCaching {
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePublic();
+
+    private CatalogCaching() {
+    }
+
+    // If-None-Match может содержать несколько ETag через запятую или *; для GET слабые ETag сравниваются как сильные
+    static boolean isNotModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null)
+            return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/"))
+                tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag))
+                return true;
+        }
+        return false;
+    }
+
+    static ResponseEntity<ApiResponse> notModified(String etag) {
+        return ResponseEntity.status(NOT_MODIFIED).eTag(etag).cacheControl(CACHE_CONTROL).build();
+    }
+
+    // заголовки добавляются только к успешному ответу, ошибки не кэшируются
+    static ResponseEntity<ApiResponse> cacheable(ResponseEntity<ApiResponse> response, String etag) {
+        if (!response.getStatusCode().is2xxSuccessful())
+            return response;
+        return ResponseEntity.status(response.getStatusCode())
+                .eTag(etag)
+                .cacheControl(CACHE_CONTROL)
+                .body(response.getBody());
+    }
+}
@@ -4,8 +4,10 @@ import com.dailycodework.dreamshops.exceptions.AlreadyExistsException;
 import com.dailycodework.dreamshops.exceptions.ResourceNotFoundException;
 import com.dailycodework.dreamshops.model.Category;
 import com.dailycodework.dreamshops.response.ApiResponse;
+import com.dailycodework.dreamshops.service.catalog.CatalogVersion;
 import com.dailycodework.dreamshops.service.category.CategoryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -19,12 +21,17 @@ import static org.springframework.http.HttpStatus.*;
 @RequestMapping("${api.prefix}/categories")
 public class CategoryController {
     private final CategoryService categoryService;
+    private final CatalogVersion catalogVersion;
 
     @GetMapping("/all")
-    public ResponseEntity<ApiResponse> getAllCategories(){
+    public ResponseEntity<ApiResponse> getAllCategories(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                        String ifNoneMatch){
+        String etag = catalogVersion.categoriesEtag();
+        if (CatalogCaching.isNotModified(ifNoneMatch, etag))
+            return CatalogCaching.notModified(etag);
         try {
             List<Category> categories = categoryService.getAllCategories();
-            return ResponseEntity.ok(new ApiResponse("Found!", categories));
+            return CatalogCaching.cacheable(ResponseEntity.ok(new ApiResponse("Found!", categories)), etag);
         } catch (Exception e) {
             return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(new ApiResponse("Error", INTERNAL_SERVER_ERROR));
         }
@@ -1,13 +1,14 @@
 package com.dailycodework.dreamshops.controller;
 
 import com.dailycodework.dreamshops.dto.ImageDto;
+import com.dailycodework.dreamshops.enums.ImageSize;
 import com.dailycodework.dreamshops.exceptions.ResourceNotFoundException;
 import com.dailycodework.dreamshops.model.Image;
 import com.dailycodework.dreamshops.response.ApiResponse;
 import com.dailycodework.dreamshops.service.image.ImageService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -16,8 +17,8 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.sql.SQLException;
 import java.util.List;
+import java.util.Optional;
 
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
@@ -41,12 +42,30 @@ public class ImageController {
     }
 
     @GetMapping("/image/download/{imageId}")
-    public ResponseEntity<Resource> downloadImage(@PathVariable Long imageId) throws SQLException {
+    public ResponseEntity<Resource> downloadImage(@PathVariable Long imageId,
+                                                  @RequestParam(defaultValue = "full") String size) {
+        ImageSize imageSize;
+        try {
+            imageSize = ImageSize.fromParam(size);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
         Image image = imageService.getImageById(imageId);
-        ByteArrayResource resource = new ByteArrayResource(image.getImage().getBytes(1, (int) image.getImage().length()));
-        return ResponseEntity.ok().contentType(MediaType.parseMediaType(image.getFileType()))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + image.getFileName() + "\"")
-                .body(resource);
+
+        // пока уменьшенная копия не построена, отдается оригинал
+        Optional<Resource> variant = imageService.getImageVariant(image, imageSize);
+        Resource resource = variant.orElseGet(() -> imageService.getImageContent(image));
+
+        // 304 по ETag и Last-Modified и 206 на заголовок Range Spring отвечает сам
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(image.getFileType()))
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + image.getFileName() + "\"");
+        if (image.getContentHash() != null)
+            response.eTag(variant.isPresent() ? image.getContentHash() + "-" + imageSize.getParam() : image.getContentHash());
+        if (image.getUpdatedAt() != null)
+            response.lastModified(image.getUpdatedAt());
+        return response.body(resource);
     }
 
     @PreAuthorize("hasRole(T(com.dailycodework.dreamshops.enums.Role).ROLE_ADMIN)")
@@ -2,6 +2,7 @@ package com.dailycodework.dreamshops.controller;
 
 import com.dailycodework.dreamshops.dto.OrderDto;
 import com.dailycodework.dreamshops.exceptions.EmptyCartException;
+import com.dailycodework.dreamshops.exceptions.OutOfStockException;
 import com.dailycodework.dreamshops.exceptions.ResourceNotFoundException;
 import com.dailycodework.dreamshops.model.Order;
 import com.dailycodework.dreamshops.response.ApiResponse;
@@ -25,7 +26,7 @@ public class OrderController {
             Order order = orderService.placeOrder(userId);
             OrderDto orderDto = orderService.convertToDto(order);
             return ResponseEntity.ok(new ApiResponse("Item Order Create Success", orderDto));
-        }catch (EmptyCartException e) {
+        }catch (EmptyCartException | OutOfStockException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse("Error occurred", e.getMessage()));
         }
         catch (Exception e) {
@@ -1,20 +1,37 @@
 package com.dailycodework.dreamshops.controller;
 
 import com.dailycodework.dreamshops.dto.ProductDto;
+import com.dailycodework.dreamshops.dto.ProductFacetsDto;
+import com.dailycodework.dreamshops.dto.ProductPageDto;
 import com.dailycodework.dreamshops.exceptions.AlreadyExistsException;
 import com.dailycodework.dreamshops.exceptions.ProductNotFoundException;
 import com.dailycodework.dreamshops.exceptions.ResourceNotFoundException;
+import com.dailycodework.dreamshops.exceptions.VersionConflictException;
 import com.dailycodework.dreamshops.model.Product;
 import com.dailycodework.dreamshops.request.AddProductRequest;
+import com.dailycodework.dreamshops.request.ProductFilterRequest;
 import com.dailycodework.dreamshops.request.ProductUpdateRequest;
 import com.dailycodework.dreamshops.response.ApiResponse;
+import com.dailycodework.dreamshops.service.catalog.CatalogVersion;
+import com.dailycodework.dreamshops.service.product.ProductCursor;
 import com.dailycodework.dreamshops.service.product.ProductService;
+import com.dailycodework.dreamshops.service.search.ProductSearchService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import static org.springframework.http.HttpStatus.*;
 
@@ -22,26 +39,51 @@ import static org.springframework.http.HttpStatus.*;
 @RestController
 @RequestMapping("${api.prefix}/products")
 public class ProductController {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int DEFAULT_SUGGESTIONS = 10;
+    private static final int MAX_SUGGESTIONS = 20;
+    // сортировка фильтра только по индексированным полям
+    private static final Set<String> FILTER_SORT_FIELDS = Set.of("id", "name", "price");
+
     private final ProductService productService;
+    private final ProductSearchService productSearchService;
+    private final CatalogVersion catalogVersion;
 
     @GetMapping("/all")
-    public ResponseEntity<ApiResponse> getAllProducts() {
+    public ResponseEntity<ApiResponse> getAllProducts(@RequestParam(required = false) Integer page,
+                                                      @RequestParam(required = false) Integer size,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                      String ifNoneMatch) {
+        String etag = catalogVersion.productsEtag();
+        if (CatalogCaching.isNotModified(ifNoneMatch, etag))
+            return CatalogCaching.notModified(etag);
+        if (isPaged(page, size, cursor))
+            return CatalogCaching.cacheable(getProductPage(page, size, cursor,
+                    productService::getAllProducts,
+                    productService::getAllProducts), etag);
         try {
             List<Product> products = productService.getAllProducts();
             List<ProductDto> convertedProducts = productService.getConvertedProducts(products);
-            return ResponseEntity.ok(new ApiResponse("success", convertedProducts));
+            return CatalogCaching.cacheable(ResponseEntity.ok(new ApiResponse("success", convertedProducts)), etag);
         } catch (Exception e) {
             return ResponseEntity.status(INTERNAL_SERVER_ERROR).body(new ApiResponse("Error", INTERNAL_SERVER_ERROR));
         }
     }
 
     @GetMapping("/product/{productId}/product")
-    public ResponseEntity<ApiResponse> getProductById(@PathVariable Long productId) {
+    public ResponseEntity<ApiResponse> getProductById(@PathVariable Long productId,
+                                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                      String ifNoneMatch) {
+        String etag = catalogVersion.productsEtag();
+        if (CatalogCaching.isNotModified(ifNoneMatch, etag))
+            return CatalogCaching.notModified(etag);
         try {
             Product product = productService.getProductById(productId);
             ProductDto productDto = productService.convertToDto(product);
 
-            return ResponseEntity.ok(new ApiResponse("success", productDto));
+            return CatalogCaching.cacheable(ResponseEntity.ok(new ApiResponse("success", productDto)), etag);
         } catch (ProductNotFoundException e) {
             return ResponseEntity.status(NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
         }
@@ -68,6 +110,8 @@ public class ProductController {
             return ResponseEntity.ok(new ApiResponse("Update product success!", productDto));
         } catch (ProductNotFoundException e) {
             return ResponseEntity.status(NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
+        } catch (VersionConflictException e) {
+            return ResponseEntity.status(CONFLICT).body(new ApiResponse(e.getMessage(), null));
         }
     }
 
@@ -83,7 +127,14 @@ public class ProductController {
     }
 
     @GetMapping("/products/by/brand-and-name")
-    public ResponseEntity<ApiResponse> getProductByBrandAndName(@RequestParam String brandName, @RequestParam String productName){
+    public ResponseEntity<ApiResponse> getProductByBrandAndName(@RequestParam String brandName, @RequestParam String productName,
+                                                                @RequestParam(required = false) Integer page,
+                                                                @RequestParam(required = false) Integer size,
+                                                                @RequestParam(required = false) String cursor){
+        if (isPaged(page, size, cursor))
+            return getProductPage(page, size, cursor,
+                    pageable -> productService.getProductsByBrandAndName(brandName, productName, pageable),
+                    (position, limit) -> productService.getProductsByBrandAndName(brandName, productName, position, limit));
         try {
             List<Product> products = productService.getProductsByBrandAndName(brandName, productName);
 
@@ -98,7 +149,14 @@ public class ProductController {
     }
 
     @GetMapping("/products/by/category-and-brand")
-    public ResponseEntity<ApiResponse> getProductByCategoryAndBrand(@RequestParam String category, @RequestParam String brand){
+    public ResponseEntity<ApiResponse> getProductByCategoryAndBrand(@RequestParam String category, @RequestParam String brand,
+                                                                    @RequestParam(required = false) Integer page,
+                                                                    @RequestParam(required = false) Integer size,
+                                                                    @RequestParam(required = false) String cursor){
+        if (isPaged(page, size, cursor))
+            return getProductPage(page, size, cursor,
+                    pageable -> productService.getProductsByCategoryAndBrand(category, brand, pageable),
+                    (position, limit) -> productService.getProductsByCategoryAndBrand(category, brand, position, limit));
         try {
             List<Product> products = productService.getProductsByCategoryAndBrand(category, brand);
             if(products.isEmpty()){
@@ -112,7 +170,14 @@ public class ProductController {
     }
 
     @GetMapping("/products/{name}/products")
-    public ResponseEntity<ApiResponse> getProductByName(@PathVariable String name){
+    public ResponseEntity<ApiResponse> getProductByName(@PathVariable String name,
+                                                        @RequestParam(required = false) Integer page,
+                                                        @RequestParam(required = false) Integer size,
+                                                        @RequestParam(required = false) String cursor){
+        if (isPaged(page, size, cursor))
+            return getProductPage(page, size, cursor,
+                    pageable -> productService.getProductsByName(name, pageable),
+                    (position, limit) -> productService.getProductsByName(name, position, limit));
         try {
             List<Product> products = productService.getProductsByName(name);
             if(products.isEmpty()){
@@ -126,7 +191,14 @@ public class ProductController {
     }
 
     @GetMapping("/product/by-brand")
-    public ResponseEntity<ApiResponse> findProductByBrand(@RequestParam String brand){
+    public ResponseEntity<ApiResponse> findProductByBrand(@RequestParam String brand,
+                                                          @RequestParam(required = false) Integer page,
+                                                          @RequestParam(required = false) Integer size,
+                                                          @RequestParam(required = false) String cursor){
+        if (isPaged(page, size, cursor))
+            return getProductPage(page, size, cursor,
+                    pageable -> productService.getProductsByBrand(brand, pageable),
+                    (position, limit) -> productService.getProductsByBrand(brand, position, limit));
         try {
             List<Product> products = productService.getProductsByBrand(brand);
             if(products.isEmpty()){
@@ -140,7 +212,14 @@ public class ProductController {
     }
 
     @GetMapping("/product/{category}/all/products")
-    public ResponseEntity<ApiResponse> findProductByCategory(@PathVariable String category){
+    public ResponseEntity<ApiResponse> findProductByCategory(@PathVariable String category,
+                                                             @RequestParam(required = false) Integer page,
+                                                             @RequestParam(required = false) Integer size,
+                                                             @RequestParam(required = false) String cursor){
+        if (isPaged(page, size, cursor))
+            return getProductPage(page, size, cursor,
+                    pageable -> productService.getProductsByCategory(category, pageable),
+                    (position, limit) -> productService.getProductsByCategory(category, position, limit));
         try {
             List<Product> products = productService.getProductsByCategory(category);
             if(products.isEmpty()){
@@ -162,4 +241,101 @@ public class ProductController {
             return ResponseEntity.ok(new ApiResponse(e.getMessage(), null));
         }
     }
+
+    // полнотекстовый поиск по названию, бренду, описанию и категории, товары по убыванию релевантности
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse> searchProducts(@RequestParam String q,
+                                                      @RequestParam(required = false) Integer size) {
+        int limit = Math.max(1, Math.min(size != null ? size : DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE));
+        List<Product> products = productSearchService.searchProducts(q, limit);
+        List<ProductDto> convertedProducts = productService.getConvertedProducts(products);
+        return ResponseEntity.ok(new ApiResponse("success", convertedProducts));
+    }
+
+    // подсказки при наборе запроса: названия товаров и бренды по убыванию популярности, без обращения к базе
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse> suggestProducts(@RequestParam String q,
+                                                       @RequestParam(required = false) Integer size) {
+        int limit = Math.max(1, Math.min(size != null ? size : DEFAULT_SUGGESTIONS, MAX_SUGGESTIONS));
+        return ResponseEntity.ok(new ApiResponse("success", productSearchService.suggestProducts(q, limit)));
+    }
+
+    // число товаров по брендам, категориям и диапазонам цен для выбранных фильтров (и результатов поиска q)
+    @GetMapping("/facets")
+    public ResponseEntity<ApiResponse> getProductFacets(@RequestParam(required = false) String q,
+                                                        @RequestParam(required = false) List<String> brand,
+                                                        @RequestParam(required = false) List<String> category,
+                                                        @RequestParam(required = false) List<String> price) {
+        try {
+            ProductFacetsDto facets = productSearchService.getProductFacets(q, brand, category, price);
+            return ResponseEntity.ok(new ApiResponse("success", facets));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    // sort - поле и направление, например price,desc
+    @GetMapping("/filter")
+    public ResponseEntity<ApiResponse> filterProducts(ProductFilterRequest filter,
+                                                      @RequestParam(required = false) Integer page,
+                                                      @RequestParam(required = false) Integer size,
+                                                      @RequestParam(required = false) String sort) {
+        int pageNumber = Math.max(0, page != null ? page : 0);
+        int pageSize = Math.max(1, Math.min(size != null ? size : DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE));
+        try {
+            Slice<Product> slice = productService.filterProducts(filter,
+                    PageRequest.of(pageNumber, pageSize, filterSort(sort)));
+            ProductPageDto productPage = new ProductPageDto(productService.getConvertedProducts(slice.getContent()),
+                    pageNumber, pageSize, slice.hasNext(), null);
+            return ResponseEntity.ok(new ApiResponse("success", productPage));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    // id добавляется последним, чтобы порядок товаров с одинаковой ценой или названием не менялся между страницами
+    private Sort filterSort(String sort) {
+        if (sort == null || sort.isBlank())
+            return Sort.by("id");
+        String[] parts = sort.split(",");
+        String field = parts[0].trim();
+        if (!FILTER_SORT_FIELDS.contains(field) || parts.length > 2)
+            throw new IllegalArgumentException("Invalid sort: " + sort);
+        Sort.Direction direction = parts.length == 2
+                ? Sort.Direction.fromString(parts[1].trim())
+                : Sort.Direction.ASC;
+        Sort result = Sort.by(direction, field);
+        return field.equals("id") ? result : result.and(Sort.by("id"));
+    }
+
+    // постраничный режим включается параметрами page/size, keyset-режим - параметром cursor (пустой - первая страница)
+    private boolean isPaged(Integer page, Integer size, String cursor) {
+        return page != null || size != null || cursor != null;
+    }
+
+    private ResponseEntity<ApiResponse> getProductPage(Integer page, Integer size, String cursor,
+                                                       Function<Pageable, Slice<Product>> pageFinder,
+                                                       BiFunction<ScrollPosition, Integer, Window<Product>> windowFinder) {
+        int pageSize = Math.max(1, Math.min(size != null ? size : DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE));
+        try {
+            ProductPageDto productPage;
+            if (cursor != null) {
+                Window<Product> window = windowFinder.apply(ProductCursor.decode(cursor), pageSize);
+                List<Product> products = window.getContent();
+                String nextCursor = window.hasNext() && !products.isEmpty()
+                        ? ProductCursor.encode(products.get(products.size() - 1).getId())
+                        : null;
+                productPage = new ProductPageDto(productService.getConvertedProducts(products),
+                        null, pageSize, nextCursor != null, nextCursor);
+            } else {
+                int pageNumber = Math.max(0, page != null ? page : 0);
+                Slice<Product> slice = pageFinder.apply(PageRequest.of(pageNumber, pageSize, Sort.by("id")));
+                productPage = new ProductPageDto(productService.getConvertedProducts(slice.getContent()),
+                        pageNumber, pageSize, slice.hasNext(), null);
+            }
+            return ResponseEntity.ok(new ApiResponse("success", productPage));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
 }
@@ -11,6 +11,8 @@ import com.dailycodework.dreamshops.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.ApplicationListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
@@ -28,6 +30,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
+// раньше остальных обработчиков ApplicationReadyEvent: поисковый индекс строится уже с товарами по умолчанию
+@Order(Ordered.HIGHEST_PRECEDENCE)
 @Transactional
 @Component
 @RequiredArgsConstructor
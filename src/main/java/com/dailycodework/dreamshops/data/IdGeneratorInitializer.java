@@ -0,0 +1,73 @@
+package com.dailycodework.dreamshops.data;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Field;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdGeneratorInitializer implements InitializingBean {
+    private static final String SEGMENT_COLUMN = "sequence_name";
+    private static final String VALUE_COLUMN = "next_val";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            for (EntityType<?> entityType : entityManagerFactory.getMetamodel().getEntities())
+                initialize(entityManager, entityType);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private void initialize(EntityManager entityManager, EntityType<?> entityType) {
+        SingularAttribute<?, ?> idAttribute = entityType.getId(entityType.getIdType().getJavaType());
+        if (!(idAttribute.getJavaMember() instanceof Field idField))
+            return;
+        TableGenerator generator = idField.getAnnotation(TableGenerator.class);
+        if (generator == null)
+            return;
+
+        Long maxId = entityManager
+                .createQuery("select max(e." + idAttribute.getName() + ") from " + entityType.getName() + " e", Long.class)
+                .getSingleResult();
+        if (maxId == null)
+            return;
+
+        // использованный счетчик не меняется: из него уже выдают блоки другие экземпляры
+        String segment = generator.pkColumnValue();
+        int updated = jdbcTemplate.update("update " + generator.table() + " set " + VALUE_COLUMN + " = ? where "
+                + SEGMENT_COLUMN + " = ? and " + VALUE_COLUMN + " = ?", maxId, segment, generator.initialValue());
+        if (updated > 0) {
+            log.info("Id generator '{}' initialized with {}", segment, maxId);
+            return;
+        }
+
+        Integer rows = jdbcTemplate.queryForObject("select count(*) from " + generator.table() + " where "
+                + SEGMENT_COLUMN + " = ?", Integer.class, segment);
+        if (rows != null && rows > 0)
+            return;
+        try {
+            jdbcTemplate.update("insert into " + generator.table() + " (" + SEGMENT_COLUMN + ", " + VALUE_COLUMN
+                    + ") values (?, ?)", segment, maxId);
+            log.info("Id generator '{}' initialized with {}", segment, maxId);
+        } catch (DuplicateKeyException e) {
+            log.info("Id generator '{}' already initialized", segment);
+        }
+    }
+}
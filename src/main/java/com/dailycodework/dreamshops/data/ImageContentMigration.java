@@ -0,0 +1,57 @@
+package com.dailycodework.dreamshops.data;
+
+import com.dailycodework.dreamshops.model.Image;
+import com.dailycodework.dreamshops.model.ImageBlob;
+import com.dailycodework.dreamshops.repository.ImageBlobRepository;
+import com.dailycodework.dreamshops.repository.ImageRepository;
+import com.dailycodework.dreamshops.service.image.ImageStorage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.util.List;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "image.storage.migrate-blobs", havingValue = "true")
+public class ImageContentMigration implements ApplicationRunner {
+    private final ImageRepository imageRepository;
+    private final ImageBlobRepository imageBlobRepository;
+    private final ImageStorage imageStorage;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Long> imageIds = imageBlobRepository.findIdsWithContent();
+        log.info("Migrating {} images from database to image storage", imageIds.size());
+
+        // каждое изображение переносится в своей транзакции, чтобы в памяти не держать все Blob сразу
+        imageIds.forEach(imageId -> transactionTemplate.executeWithoutResult(status ->
+                imageRepository.findById(imageId).ifPresent(image ->
+                        migrate(image, imageBlobRepository.getReferenceById(imageId)))));
+
+        log.info("Image migration finished");
+    }
+
+    private void migrate(Image image, ImageBlob blob) {
+        try (InputStream content = blob.getImage().getBinaryStream()) {
+            image.setFileSize(blob.getImage().length());
+            image.setContentHash(imageStorage.store(content));
+            blob.setImage(null);
+            imageRepository.save(image);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to read content of image " + image.getId(), e);
+        }
+    }
+}
@@ -2,9 +2,12 @@ package com.dailycodework.dreamshops.dto;
 
 import lombok.Data;
 
+import java.util.Map;
+
 @Data
 public class ImageDto {
     private Long id;
     private String fileName;
     private String downloadUrl;
+    private Map<String, String> variantUrls; // размер (thumb, medium, full) -> ссылка на загрузку
 }
@@ -16,4 +16,5 @@ public class ProductDto {
     private String description;
     private Category category;
     private List<ImageDto> images;
+    private long version; // передается обратно при изменении товара
 }
@@ -0,0 +1,15 @@
+package com.dailycodework.dreamshops.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class ProductFacetsDto {
+    private int total; // товары, подходящие под все выбранные фильтры
+    private Map<String, Integer> brands;
+    private Map<String, Integer> categories;
+    private Map<String, Integer> prices; // диапазоны цен по возрастанию, включая пустые
+}
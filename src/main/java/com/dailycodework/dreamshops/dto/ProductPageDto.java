@@ -0,0 +1,16 @@
+package com.dailycodework.dreamshops.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ProductPageDto {
+    private List<ProductDto> products;
+    private Integer page; // null при keyset-пагинации
+    private int size;
+    private boolean hasNext;
+    private String nextCursor; // null при постраничной выборке или на последней странице
+}
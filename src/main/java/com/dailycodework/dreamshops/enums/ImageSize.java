@@ -0,0 +1,45 @@
+package com.dailycodework.dreamshops.enums;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+public enum ImageSize {
+    THUMB(200),
+    MEDIUM(800),
+    FULL(0); // исходное изображение
+
+    private final int maxDimension;
+
+    ImageSize(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    public boolean isVariant() {
+        return this != FULL;
+    }
+
+    public String getParam() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static ImageSize fromParam(String param) {
+        for (ImageSize size : values()) {
+            if (size.getParam().equalsIgnoreCase(param))
+                return size;
+        }
+        throw new IllegalArgumentException("Unknown image size: " + param);
+    }
+
+    // ссылки на все размеры изображения по его downloadUrl
+    public static Map<String, String> variantUrls(String downloadUrl) {
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (ImageSize size : values())
+            urls.put(size.getParam(), downloadUrl + "?size=" + size.getParam());
+        return urls;
+    }
+}
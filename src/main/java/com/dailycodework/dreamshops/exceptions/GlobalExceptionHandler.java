@@ -1,5 +1,6 @@
 package com.dailycodework.dreamshops.exceptions;
 
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -14,4 +15,10 @@ public class GlobalExceptionHandler {
         String message = "You dont have permission to this action";
         return new ResponseEntity<>(message, HttpStatus.FORBIDDEN);
     }
+
+    @ExceptionHandler(ConcurrencyFailureException.class) // изменение не удалось и после повторов
+    public ResponseEntity<String> handleConcurrencyFailureException(ConcurrencyFailureException ex){
+        String message = "The data was changed concurrently, please try again";
+        return new ResponseEntity<>(message, HttpStatus.CONFLICT);
+    }
 }
@@ -0,0 +1,7 @@
+package com.dailycodework.dreamshops.exceptions;
+
+public class OutOfStockException extends RuntimeException{
+    public OutOfStockException(String message) {
+        super(message);
+    }
+}
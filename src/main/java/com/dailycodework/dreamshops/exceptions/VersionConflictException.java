@@ -0,0 +1,7 @@
+package com.dailycodework.dreamshops.exceptions;
+
+public class VersionConflictException extends RuntimeException{
+    public VersionConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,47 @@
+package com.dailycodework.dreamshops.mapper;
+
+import com.dailycodework.dreamshops.dto.CartDto;
+import com.dailycodework.dreamshops.dto.CartItemDto;
+import com.dailycodework.dreamshops.dto.ProductDto;
+import com.dailycodework.dreamshops.model.Cart;
+import com.dailycodework.dreamshops.model.CartItem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+public class CartMapper {
+    private final ProductMapper productMapper;
+
+    // товары без изображений
+    public CartDto toDto(Cart cart) {
+        return toDto(cart, item -> productMapper.toDto(item.getProduct(), null));
+    }
+
+    // товары уже конвертированы вместе с изображениями (CartService.convertToDto)
+    public CartDto toDto(Cart cart, Map<Long, ProductDto> productsById) {
+        return toDto(cart, item -> productsById.get(item.getProduct().getId()));
+    }
+
+    private CartDto toDto(Cart cart, Function<CartItem, ProductDto> productOf) {
+        CartDto cartDto = new CartDto();
+        cartDto.setCartId(cart.getId());
+        cartDto.setItems(cart.getItems()
+                .stream()
+                .map(item -> {
+                    CartItemDto itemDto = new CartItemDto();
+                    itemDto.setItemId(item.getId());
+                    itemDto.setQuantity(item.getQuantity());
+                    itemDto.setUnitPrice(item.getUnitPrice());
+                    itemDto.setProduct(item.getProduct() != null ? productOf.apply(item) : null);
+                    return itemDto;
+                })
+                .collect(Collectors.toSet()));
+        cartDto.setTotalAmount(cart.getTotalAmount());
+        return cartDto;
+    }
+}
@@ -0,0 +1,20 @@
+package com.dailycodework.dreamshops.mapper;
+
+import com.dailycodework.dreamshops.dto.ImageDto;
+import com.dailycodework.dreamshops.enums.ImageSize;
+import com.dailycodework.dreamshops.model.Image;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ImageMapper {
+
+    public ImageDto toDto(Image image) {
+        ImageDto imageDto = new ImageDto();
+        imageDto.setId(image.getId());
+        imageDto.setFileName(image.getFileName());
+        imageDto.setDownloadUrl(image.getDownloadUrl());
+        if (image.getDownloadUrl() != null)
+            imageDto.setVariantUrls(ImageSize.variantUrls(image.getDownloadUrl()));
+        return imageDto;
+    }
+}
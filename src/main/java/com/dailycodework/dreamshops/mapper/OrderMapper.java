@@ -0,0 +1,37 @@
+package com.dailycodework.dreamshops.mapper;
+
+import com.dailycodework.dreamshops.dto.OrderDto;
+import com.dailycodework.dreamshops.dto.OrderItemDto;
+import com.dailycodework.dreamshops.model.Order;
+import com.dailycodework.dreamshops.model.OrderItem;
+import com.dailycodework.dreamshops.model.Product;
+import org.springframework.stereotype.Component;
+
+@Component
+public class OrderMapper {
+
+    public OrderDto toDto(Order order) {
+        OrderDto orderDto = new OrderDto();
+        orderDto.setOrderId(order.getOrderId());
+        orderDto.setUserId(order.getUser() != null ? order.getUser().getId() : null);
+        orderDto.setOrderDate(order.getOrderDate());
+        orderDto.setTotalAmount(order.getTotalAmount());
+        orderDto.setStatus(order.getOrderStatus() != null ? order.getOrderStatus().name() : null);
+        if (order.getOrderItems() != null)
+            orderDto.setItems(order.getOrderItems().stream().map(this::toDto).toList());
+        return orderDto;
+    }
+
+    public OrderItemDto toDto(OrderItem orderItem) {
+        OrderItemDto orderItemDto = new OrderItemDto();
+        Product product = orderItem.getProduct();
+        if (product != null) {
+            orderItemDto.setProductId(product.getId());
+            orderItemDto.setProductName(product.getName());
+            orderItemDto.setProductBrand(product.getBrand());
+        }
+        orderItemDto.setQuantity(orderItem.getQuantity());
+        orderItemDto.setPrice(orderItem.getPrice());
+        return orderItemDto;
+    }
+}
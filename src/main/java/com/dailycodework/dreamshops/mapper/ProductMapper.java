@@ -0,0 +1,26 @@
+package com.dailycodework.dreamshops.mapper;
+
+import com.dailycodework.dreamshops.dto.ImageDto;
+import com.dailycodework.dreamshops.dto.ProductDto;
+import com.dailycodework.dreamshops.model.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class ProductMapper {
+
+    public ProductDto toDto(Product product, List<ImageDto> images) {
+        ProductDto productDto = new ProductDto();
+        productDto.setId(product.getId());
+        productDto.setName(product.getName());
+        productDto.setBrand(product.getBrand());
+        productDto.setPrice(product.getPrice());
+        productDto.setInventory(product.getInventory());
+        productDto.setDescription(product.getDescription());
+        productDto.setCategory(product.getCategory());
+        productDto.setImages(images);
+        productDto.setVersion(product.getVersion());
+        return productDto;
+    }
+}
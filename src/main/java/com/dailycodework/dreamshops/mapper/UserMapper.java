@@ -0,0 +1,26 @@
+package com.dailycodework.dreamshops.mapper;
+
+import com.dailycodework.dreamshops.dto.UserDto;
+import com.dailycodework.dreamshops.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class UserMapper {
+    private final OrderMapper orderMapper;
+    private final CartMapper cartMapper;
+
+    public UserDto toDto(User user) {
+        UserDto userDto = new UserDto();
+        userDto.setId(user.getId());
+        userDto.setFirstName(user.getFirstName());
+        userDto.setLastName(user.getLastName());
+        userDto.setEmail(user.getEmail());
+        if (user.getOrders() != null)
+            userDto.setOrders(user.getOrders().stream().map(orderMapper::toDto).toList());
+        if (user.getCart() != null)
+            userDto.setCart(cartMapper.toDto(user.getCart()));
+        return userDto;
+    }
+}
@@ -1,13 +1,18 @@
 package com.dailycodework.dreamshops.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 @Getter
@@ -19,6 +24,8 @@ public class Cart {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+    @Version
+    private long version;
     private BigDecimal totalAmount =  BigDecimal.ZERO;
 
     @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -29,24 +36,103 @@ public class Cart {
     private User user;
 
 
+    // индекс позиций по id товара: поиск позиции без обхода всей корзины; строится при первом обращении
+    @JsonIgnore
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Map<Long, CartItem> itemsByProductId;
+
+    public void setItems(Set<CartItem> items){
+        this.items = items;
+        this.itemsByProductId = null;
+        updateTotalAmount();
+    }
+
+    public Optional<CartItem> findItem(Long productId){
+        return Optional.ofNullable(itemsByProductId().get(productId));
+    }
+
     public void addItem(CartItem item){
+        CartItem existingItem = findItem(productIdOf(item)).orElse(null);
+        if (existingItem == item)
+            return;
+        if (existingItem != null)
+            removeItem(existingItem);
+
         this.items.add(item);
         item.setCart(this);
-        updateTotalAmount();
+        itemsByProductId().put(productIdOf(item), item);
+        this.totalAmount = totalAmount().add(lineTotal(item));
+    }
+
+    // добавляет товар: у существующей позиции увеличивается кол-во, иначе создается новая позиция по текущей цене товара
+    public CartItem addProduct(Product product, int quantity){
+        CartItem item = findItem(product.getId()).orElse(null);
+        if (item != null) {
+            updateItemQuantity(item, item.getQuantity() + quantity);
+            return item;
+        }
+
+        item = new CartItem();
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        item.setUnitPrice(product.getPrice());
+        item.setTotalPrice(); // установка общей суммы у предмета
+        addItem(item);
+        return item;
     }
 
     public void removeItem(CartItem item){
-        this.items.remove(item);
+        if (!this.items.remove(item))
+            return;
         item.setCart(null); // так как null - запись из таблицы cart_item будет удалена
-        updateTotalAmount();
+        itemsByProductId().remove(productIdOf(item));
+        this.totalAmount = totalAmount().subtract(lineTotal(item));
+    }
+
+    // изменение количества: общая сумма корзины корректируется на разницу стоимости позиции
+    public void updateItemQuantity(CartItem item, int quantity){
+        BigDecimal oldLineTotal = lineTotal(item);
+        item.setQuantity(quantity);
+        if (item.getUnitPrice() != null)
+            item.setTotalPrice();
+        this.totalAmount = totalAmount().subtract(oldLineTotal).add(lineTotal(item));
+    }
+
+    public void clearItems(){
+        this.items.clear();
+        this.itemsByProductId = new HashMap<>();
+        this.totalAmount = BigDecimal.ZERO;
+    }
+
+    private Map<Long, CartItem> itemsByProductId(){
+        if (itemsByProductId == null) {
+            itemsByProductId = new HashMap<>();
+            items.forEach(item -> itemsByProductId.put(productIdOf(item), item));
+        }
+        return itemsByProductId;
+    }
+
+    // getId у прокси Hibernate не инициализирует товар
+    private static Long productIdOf(CartItem item){
+        return item.getProduct() != null ? item.getProduct().getId() : null;
+    }
+
+    private static BigDecimal lineTotal(CartItem item){
+        BigDecimal unitPrice = item.getUnitPrice();
+        if(unitPrice == null)
+            return BigDecimal.ZERO;
+        return unitPrice.multiply(BigDecimal.valueOf(item.getQuantity()));
+    }
+
+    private BigDecimal totalAmount(){
+        return totalAmount != null ? totalAmount : BigDecimal.ZERO;
     }
 
     private void updateTotalAmount(){
-        this.totalAmount = items.stream().map(item ->{
-            BigDecimal unitPrice = item.getUnitPrice();
-            if(unitPrice == null)
-                return BigDecimal.ZERO;
-            return unitPrice.multiply(BigDecimal.valueOf(item.getQuantity()));
-        }).reduce(BigDecimal.ZERO, BigDecimal::add); //reduce - складывает общую сумму и преобразует в тип BigDecimal
+        this.totalAmount = items.stream()
+                .map(Cart::lineTotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add); //reduce - складывает общую сумму и преобразует в тип BigDecimal
     }
 }
@@ -16,8 +16,11 @@ import java.math.BigDecimal;
 @Entity
 public class CartItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "cart_item_id")
+    @TableGenerator(name = "cart_item_id", table = "id_generator", pkColumnValue = "cart_item", allocationSize = 50)
     private Long id;
+    @Version
+    private long version;
     private int quantity;
     private BigDecimal unitPrice;
     private BigDecimal totalPrice;
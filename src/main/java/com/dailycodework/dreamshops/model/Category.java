@@ -6,6 +6,8 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
@@ -13,6 +15,11 @@ import java.util.List;
 @Setter
 @NoArgsConstructor
 @Entity
+// товары ищутся по названию категории
+@Table(indexes = @Index(name = "idx_category_name", columnList = "name"))
+// кэш второго уровня: категории читаются при каждом добавлении и изменении товара и через Product.category
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category")
 public class Category {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -5,8 +5,9 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
 
-import java.sql.Blob;
+import java.time.Instant;
 
 @Getter
 @Setter
@@ -20,8 +21,13 @@ public class Image {
     private String fileName;
     private String fileType;
 
-    @Lob
-    private Blob image; // хранения больших типов данных в бинарном формате
+    @Column(length = 64)
+    private String contentHash; // ключ содержимого в ImageStorage (SHA-256)
+    private Long fileSize;
+
+    @UpdateTimestamp
+    private Instant updatedAt; // используется как Last-Modified при загрузке
+
     private String downloadUrl;
 
     @ManyToOne
@@ -0,0 +1,23 @@
+package com.dailycodework.dreamshops.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.sql.Blob;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "image")
+public class ImageBlob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // устаревшее хранение содержимого в БД: заполнено только у изображений, еще не перенесенных в ImageStorage
+    @Lob
+    private Blob image;
+}
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -13,10 +15,23 @@ import java.util.List;
 @Setter
 @NoArgsConstructor
 @Entity
+// индексы под выборки каталога: бренд и бренд с названием, название (и его начало), категория и категория с брендом, цена
+@Table(indexes = {
+        @Index(name = "idx_product_brand_name", columnList = "brand, name"),
+        @Index(name = "idx_product_name", columnList = "name"),
+        @Index(name = "idx_product_category_brand", columnList = "category_id, brand"),
+        @Index(name = "idx_product_price", columnList = "price")
+})
+// остаток списывается SQL-запросом мимо Hibernate, поэтому ProductInventoryRepositoryImpl сам удаляет товары из кэша
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product")
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+    // оптимистическая блокировка: параллельное изменение той же строки завершится ошибкой, а не тихой перезаписью
+    @Version
+    private long version;
     private String name;
     private String brand;
     private BigDecimal price;
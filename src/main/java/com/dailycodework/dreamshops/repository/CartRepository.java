@@ -1,8 +1,24 @@
 package com.dailycodework.dreamshops.repository;
 
 import com.dailycodework.dreamshops.model.Cart;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
     Cart findByUserId(Long userId);
+
+    @Query("select c.id from Cart c where c.user.id = :userId")
+    Optional<Long> findIdByUserId(Long userId);
+
+    // корзина вместе с позициями и товарами одним запросом, чтобы с ней можно было работать вне транзакции
+    @EntityGraph(attributePaths = {"items", "items.product"})
+    Optional<Cart> findWithItemsById(Long id);
+
+    @EntityGraph(attributePaths = {"items", "items.product"})
+    List<Cart> findWithItemsByIdIn(Collection<Long> ids);
 }
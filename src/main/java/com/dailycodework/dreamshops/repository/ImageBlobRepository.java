@@ -0,0 +1,20 @@
+package com.dailycodework.dreamshops.repository;
+
+import com.dailycodework.dreamshops.model.ImageBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, Long> {
+    // изображения, содержимое которых еще хранится в БД
+    @Query("select b.id from ImageBlob b where b.image is not null")
+    List<Long> findIdsWithContent();
+
+    @Transactional
+    @Modifying
+    @Query("update ImageBlob b set b.image = null where b.id = :id and b.image is not null")
+    void clearContent(Long id);
+}
@@ -3,8 +3,13 @@ package com.dailycodework.dreamshops.repository;
 import com.dailycodework.dreamshops.model.Image;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ImageRepository extends JpaRepository<Image, Long> {
     List<Image> findByProductId(Long id);
+
+    List<Image> findByProductIdIn(Collection<Long> productIds);
+
+    boolean existsByContentHash(String contentHash);
 }
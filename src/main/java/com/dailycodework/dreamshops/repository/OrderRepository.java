@@ -2,9 +2,20 @@ package com.dailycodework.dreamshops.repository;
 
 import com.dailycodework.dreamshops.model.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserId(Long userId);
+
+    // сколько штук каждого товара заказано за все время
+    @Query("select i.product.id as productId, sum(i.quantity) as quantity from OrderItem i group by i.product.id")
+    List<ProductSales> findProductSales();
+
+    interface ProductSales {
+        Long getProductId();
+
+        Long getQuantity();
+    }
 }
@@ -0,0 +1,11 @@
+package com.dailycodework.dreamshops.repository;
+
+import com.dailycodework.dreamshops.model.Product;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface ProductFilterRepository {
+    // страница товаров по условиям без count-запроса: выбирается на одну строку больше, чтобы узнать hasNext
+    Slice<Product> findSliceBy(Specification<Product> specification, Pageable pageable);
+}
@@ -0,0 +1,40 @@
+package com.dailycodework.dreamshops.repository;
+
+import com.dailycodework.dreamshops.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ProductFilterRepositoryImpl implements ProductFilterRepository {
+    private final EntityManager entityManager;
+
+    @Override
+    public Slice<Product> findSliceBy(Specification<Product> specification, Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Product> query = builder.createQuery(Product.class);
+        Root<Product> root = query.from(Product.class);
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        query.select(root).orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+        // фильтр без условий дает null
+        if (predicate != null)
+            query.where(predicate);
+
+        List<Product> products = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = products.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? products.subList(0, pageable.getPageSize()) : products, pageable, hasNext);
+    }
+}
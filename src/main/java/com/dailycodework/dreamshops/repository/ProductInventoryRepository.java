@@ -0,0 +1,9 @@
+package com.dailycodework.dreamshops.repository;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ProductInventoryRepository {
+    // возвращает id товаров, остатка которых не хватило
+    List<Long> decrementInventory(Map<Long, Integer> quantities);
+}
@@ -0,0 +1,55 @@
+package com.dailycodework.dreamshops.repository;
+
+import com.dailycodework.dreamshops.model.Product;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class ProductInventoryRepositoryImpl implements ProductInventoryRepository {
+    // версия увеличивается: изменение товара, прочитанного до списания, не перезапишет остаток
+    private static final String DECREMENT_INVENTORY =
+            "update product set inventory = inventory - ?, version = version + 1 where id = ? and inventory >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public List<Long> decrementInventory(Map<Long, Integer> quantities) {
+        List<Long> productIds = new ArrayList<>(quantities.keySet());
+        List<Object[]> arguments = productIds.stream()
+                .map(productId -> new Object[]{quantities.get(productId), productId, quantities.get(productId)})
+                .toList();
+
+        int[] updateCounts = jdbcTemplate.batchUpdate(DECREMENT_INVENTORY, arguments);
+        evictFromCache(productIds);
+
+        List<Long> outOfStock = new ArrayList<>();
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == 0)
+                outOfStock.add(productIds.get(i));
+        }
+        return outOfStock;
+    }
+
+    // запрос идет мимо Hibernate: товары удаляются из кэша второго уровня сразу и еще раз после транзакции
+    private void evictFromCache(List<Long> productIds) {
+        Cache cache = entityManagerFactory.getCache();
+        productIds.forEach(productId -> cache.evict(Product.class, productId));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    productIds.forEach(productId -> cache.evict(Product.class, productId));
+                }
+            });
+        }
+    }
+}
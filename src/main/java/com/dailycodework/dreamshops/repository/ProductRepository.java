@@ -1,11 +1,18 @@
 package com.dailycodework.dreamshops.repository;
 
 import com.dailycodework.dreamshops.model.Product;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductInventoryRepository,
+        ProductFilterRepository {
     List<Product> findByCategoryName(String category);
 
     List<Product> findByBrand(String brand);
@@ -19,4 +26,35 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     Long countByBrandAndName(String brand, String name);
 
     boolean existsByNameAndBrand(String name, String brand);
+
+    // товары категории, которые переиндексируются при ее переименовании и удалении
+    @Query("select p.id from Product p where p.category.id = :categoryId")
+    List<Long> findIdsByCategoryId(Long categoryId);
+
+    // постраничная выборка без count-запроса (Slice вместо Page)
+    Slice<Product> findAllBy(Pageable pageable);
+
+    Slice<Product> findByCategoryName(String category, Pageable pageable);
+
+    Slice<Product> findByBrand(String brand, Pageable pageable);
+
+    Slice<Product> findByCategoryNameAndBrand(String category, String brand, Pageable pageable);
+
+    Slice<Product> findByName(String name, Pageable pageable);
+
+    Slice<Product> findByBrandAndName(String brand, String name, Pageable pageable);
+
+    // keyset-выборка (id > последнего полученного id), стоимость не зависит от глубины страницы
+    Window<Product> findAllByOrderByIdAsc(ScrollPosition position, Limit limit);
+
+    Window<Product> findByCategoryNameOrderByIdAsc(String category, ScrollPosition position, Limit limit);
+
+    Window<Product> findByBrandOrderByIdAsc(String brand, ScrollPosition position, Limit limit);
+
+    Window<Product> findByCategoryNameAndBrandOrderByIdAsc(String category, String brand,
+                                                          ScrollPosition position, Limit limit);
+
+    Window<Product> findByNameOrderByIdAsc(String name, ScrollPosition position, Limit limit);
+
+    Window<Product> findByBrandAndNameOrderByIdAsc(String brand, String name, ScrollPosition position, Limit limit);
 }
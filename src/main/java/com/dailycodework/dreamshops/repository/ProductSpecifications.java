@@ -0,0 +1,61 @@
+package com.dailycodework.dreamshops.repository;
+
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.request.ProductFilterRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+
+public final class ProductSpecifications {
+    private static final char LIKE_ESCAPE = '\\';
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> matching(ProductFilterRequest filter) {
+        Specification<Product> specification = Specification.where(null);
+        if (StringUtils.hasText(filter.getCategory()))
+            specification = specification.and(hasCategory(filter.getCategory()));
+        if (StringUtils.hasText(filter.getBrand()))
+            specification = specification.and(hasBrand(filter.getBrand()));
+        if (StringUtils.hasText(filter.getName()))
+            specification = specification.and(nameStartsWith(filter.getName()));
+        if (filter.getMinPrice() != null)
+            specification = specification.and(priceAtLeast(filter.getMinPrice()));
+        if (filter.getMaxPrice() != null)
+            specification = specification.and(priceAtMost(filter.getMaxPrice()));
+        if (Boolean.TRUE.equals(filter.getInStock()))
+            specification = specification.and(inStock());
+        return specification;
+    }
+
+    public static Specification<Product> hasCategory(String category) {
+        return (root, query, builder) -> builder.equal(root.join("category").get("name"), category);
+    }
+
+    public static Specification<Product> hasBrand(String brand) {
+        return (root, query, builder) -> builder.equal(root.get("brand"), brand);
+    }
+
+    // like 'префикс%' без функций над столбцом, поэтому использует индекс по названию
+    public static Specification<Product> nameStartsWith(String prefix) {
+        return (root, query, builder) -> builder.like(root.get("name"), escapeLike(prefix) + "%", LIKE_ESCAPE);
+    }
+
+    public static Specification<Product> priceAtLeast(BigDecimal price) {
+        return (root, query, builder) -> builder.greaterThanOrEqualTo(root.get("price"), price);
+    }
+
+    public static Specification<Product> priceAtMost(BigDecimal price) {
+        return (root, query, builder) -> builder.lessThanOrEqualTo(root.get("price"), price);
+    }
+
+    public static Specification<Product> inStock() {
+        return (root, query, builder) -> builder.greaterThan(root.get("inventory"), 0);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,9 @@
+package com.dailycodework.dreamshops.request;
+
+import lombok.Data;
+
+@Data
+public class CartItemRequest {
+    private Long productId;
+    private int quantity;
+}
@@ -0,0 +1,16 @@
+package com.dailycodework.dreamshops.request;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class ProductFilterRequest {
+    private String category;
+    private String brand;
+    // начало названия; учет регистра задает collation столбца, в MySQL по умолчанию регистр не учитывается
+    private String name;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Boolean inStock;
+}
@@ -13,4 +13,5 @@ public class ProductUpdateRequest {
     private int inventory;
     private String description;
     private Category category;
+    private Long version; // версия товара, которую изменял клиент (ProductDto.version); без нее конфликт не проверяется
 }
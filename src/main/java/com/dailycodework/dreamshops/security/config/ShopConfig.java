@@ -4,7 +4,6 @@ import com.dailycodework.dreamshops.security.jwt.AuthTokenFilter;
 import com.dailycodework.dreamshops.security.jwt.JwtAuthEntryPoint;
 import com.dailycodework.dreamshops.security.user.ShopUserDetailsService;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -33,11 +32,6 @@ public class ShopConfig {
     private static final List<String> SECURED_URLS =
             List.of("/api/v1/carts/**", "/api/v1/cartItems/**");
 
-    @Bean
-    public ModelMapper modelMapper() {
-        return new ModelMapper();
-    }
-
     @Bean
     public PasswordEncoder passwordEncoder(){
         return new BCryptPasswordEncoder();
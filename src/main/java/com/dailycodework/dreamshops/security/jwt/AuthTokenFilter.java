@@ -1,12 +1,14 @@
 package com.dailycodework.dreamshops.security.jwt;
 
-import com.dailycodework.dreamshops.security.user.ShopUserDetailsService;
+import com.dailycodework.dreamshops.security.user.ShopUserDetailsCache;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -20,30 +22,33 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 
 public class AuthTokenFilter extends OncePerRequestFilter {
+    private static final String PRINCIPAL_SOURCE_CLAIMS = "claims";
+
     @Autowired
     private JwtUtils jwtUtils;
     @Autowired
-    private ShopUserDetailsService userDetailsService;
+    private ShopUserDetailsCache userDetailsCache;
+    @Value("${auth.principal.source:database}")
+    private String principalSource; // claims - пользователь строится из токена, database - загружается из БД
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
                                     @NonNull HttpServletResponse response,
                                     @NonNull FilterChain filterChain) throws ServletException, IOException {
         try {
-            String jwt = null;
-            String username = null;
+            Claims claims = null;
 
-            // получение jwt токена из заголовка
+            // получение jwt токена из заголовка, токен разбирается один раз на запрос
             String headerAuth = request.getHeader("Authorization");
             if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
-                jwt = headerAuth.substring(7);
-                username = jwtUtils.getUsernameFromToken(jwt);
+                claims = jwtUtils.parseToken(headerAuth.substring(7));
             }
 
             // валидация токена
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                if(jwtUtils.validateToken(jwt, userDetails)){
+            if (claims != null && claims.getSubject() != null
+                    && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails userDetails = loadUserDetails(claims);
+                if(jwtUtils.validateToken(claims, userDetails)){
                     Authentication auth = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                     SecurityContextHolder.getContext().setAuthentication(auth);
                 }
@@ -59,4 +64,11 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    // в режиме claims подпись токена уже проверена, id и роли берутся из него без запроса к БД
+    private UserDetails loadUserDetails(Claims claims) {
+        if (PRINCIPAL_SOURCE_CLAIMS.equalsIgnoreCase(principalSource))
+            return jwtUtils.getUserDetailsFromClaims(claims);
+        return userDetailsCache.loadUserByUsername(claims.getSubject());
+    }
 }
@@ -14,16 +14,21 @@ import org.springframework.stereotype.Component;
 import java.security.Key;
 import java.util.Date;
 import java.util.List;
-import java.util.function.Function;
 
 @Component
 public class JwtUtils {
+    private final Key key; // ключ для подписи JWT-токенов, декодируется из секрета один раз
+    private final JwtParser jwtParser; // потокобезопасен, переиспользуется для всех запросов
+    private final int expirationTime; // время жизни JWT-токена в миллисекундах
 
-    @Value("${auth.token.jwtSecret}")
-    private String jwtSecret; // ключ для подписи JWT-токенов.
-
-    @Value("${auth.token.expirationInMils}")
-    private int expirationTime; // время жизни JWT-токена в миллисекундах
+    public JwtUtils(@Value("${auth.token.jwtSecret}") String jwtSecret,
+                    @Value("${auth.token.expirationInMils}") int expirationTime) {
+        this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+        this.expirationTime = expirationTime;
+    }
 
     public String generateTokenForUser(Authentication authentication){
         ShopUserDetails userPrincipal = (ShopUserDetails) authentication.getPrincipal();
@@ -40,47 +45,38 @@ public class JwtUtils {
                 .claim("roles", roles)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + expirationTime))
-                .signWith(key(), SignatureAlgorithm.HS256).compact();
-    }
-
-    // декодирует секретный ключ и возвращает ключ для подписки
-    private Key key(){
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
-    }
-
-    // получение claim в зависимости от задачи
-    private <T> T extractClaim(String token, Function<Claims, T> claimResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimResolver.apply(claims);
-    }
-
-    // получение всех claim
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    // получение логина пользователя
-    public String getUsernameFromToken(String token){
-        return extractClaim(token, Claims::getSubject);
+                .signWith(key, SignatureAlgorithm.HS256).compact();
     }
 
-    // валидация пользователя
-    public boolean validateToken(String token, UserDetails userDetails){
+    // проверка подписи и разбор токена; результат переиспользуется в рамках запроса
+    public Claims parseToken(String token){
         try {
-            final String userName = getUsernameFromToken(token);
-            return (userName.equals(userDetails.getUsername()) && !isTokenExpired(token));
+            return jwtParser.parseClaimsJws(token).getBody();
         } catch (ExpiredJwtException | UnsupportedJwtException | MalformedJwtException
                  | SignatureException | IllegalArgumentException e) {
             throw new JwtException(e.getMessage());
         }
     }
 
+    // пользователь из claims, записанных в generateTokenForUser
+    public ShopUserDetails getUserDetailsFromClaims(Claims claims){
+        Number id = claims.get("id", Number.class);
+        List<?> roles = claims.get("roles", List.class);
+        return ShopUserDetails.buildUserDetails(
+                id != null ? id.longValue() : null,
+                claims.getSubject(),
+                roles != null ? roles.stream().map(String::valueOf).toList() : List.of());
+    }
+
+    // валидация пользователя по уже разобранному токену
+    public boolean validateToken(Claims claims, UserDetails userDetails){
+        return claims.getSubject() != null
+                && claims.getSubject().equals(userDetails.getUsername())
+                && !isTokenExpired(claims);
+    }
+
     // проверка истечения срока jwt
-    private boolean isTokenExpired(String token) {
-        return extractClaim(token, Claims::getExpiration).before(new Date());
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration() != null && claims.getExpiration().before(new Date());
     }
 }
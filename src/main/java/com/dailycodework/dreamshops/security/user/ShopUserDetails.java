@@ -38,6 +38,16 @@ public class ShopUserDetails implements UserDetails {
         );
     }
 
+    // пользователь из claims проверенного токена (без обращения к БД), пароль неизвестен
+    public static ShopUserDetails buildUserDetails(Long id, String email, List<String> roles){
+        List<GrantedAuthority> authorities = roles
+                .stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role))
+                .collect(Collectors.toList());
+
+        return new ShopUserDetails(id, email, null, authorities);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
@@ -0,0 +1,36 @@
+package com.dailycodework.dreamshops.security.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+public class ShopUserDetailsCache {
+    private final ShopUserDetailsService userDetailsService;
+    private final Cache<String, UserDetails> cache; // null - кэш выключен
+
+    public ShopUserDetailsCache(ShopUserDetailsService userDetailsService,
+                                @Value("${auth.principal.cache.ttl:0s}") Duration ttl,
+                                @Value("${auth.principal.cache.max-size:10000}") long maxSize) {
+        this.userDetailsService = userDetailsService;
+        this.cache = ttl.isZero() || ttl.isNegative() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public UserDetails loadUserByUsername(String email) {
+        if (cache == null)
+            return userDetailsService.loadUserByUsername(email);
+        return cache.get(email, userDetailsService::loadUserByUsername);
+    }
+
+    public void evict(String email) {
+        if (cache != null)
+            cache.invalidate(email);
+    }
+}
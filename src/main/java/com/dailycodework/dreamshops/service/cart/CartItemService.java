@@ -1,9 +1,13 @@
 package com.dailycodework.dreamshops.service.cart;
 
-import com.dailycodework.dreamshops.model.CartItem;
+import com.dailycodework.dreamshops.model.Cart;
+import com.dailycodework.dreamshops.request.CartItemRequest;
+
+import java.util.List;
 
 public interface CartItemService {
     void addItemToCart(Long cartId, Long productId,int quantity);
     void removeItemFromCart(Long cartId, Long productId);
     void updateItemQuantity(Long cartId, Long productId, int quantity);
+    Cart addItemsToCart(Long cartId, List<CartItemRequest> items);
 }
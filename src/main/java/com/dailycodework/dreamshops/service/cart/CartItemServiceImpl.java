@@ -1,93 +1,95 @@
 package com.dailycodework.dreamshops.service.cart;
 
+import com.dailycodework.dreamshops.config.RetryOnConcurrentUpdate;
 import com.dailycodework.dreamshops.exceptions.ResourceNotFoundException;
 import com.dailycodework.dreamshops.model.Cart;
 import com.dailycodework.dreamshops.model.CartItem;
 import com.dailycodework.dreamshops.model.Product;
 import com.dailycodework.dreamshops.repository.CartItemRepository;
 import com.dailycodework.dreamshops.repository.CartRepository;
+import com.dailycodework.dreamshops.request.CartItemRequest;
 import com.dailycodework.dreamshops.service.product.ProductService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@RetryOnConcurrentUpdate
 public class CartItemServiceImpl implements CartItemService {
     private final CartItemRepository cartItemRepository;
     private final CartRepository cartRepository;
     private final ProductService productService;
     private final CartService cartService;
 
+    @Transactional
     @Override
     public void addItemToCart(Long cartId, Long productId, int quantity) {
         Cart cart = cartService.getCart(cartId);
         Product product = productService.getProductById(productId);
 
-        // получает предмет из карты, если есть у пользователя
-        CartItem cartItem = cart.getItems()
-                .stream()
-                .filter(item -> item.getProduct().getId().equals(productId))
-                .findFirst().orElse(new CartItem());
-
-        // если нет, то создается новый предмет в корзине, иначе увеличивается кол-во в корзине
-        if(cartItem.getId() == null){
-            cartItem.setCart(cart);
-            cartItem.setProduct(product);
-            cartItem.setQuantity(quantity);
-            cartItem.setUnitPrice(product.getPrice());
-        }
-        else{
-            cartItem.setQuantity(cartItem.getQuantity() + quantity);
-        }
-
-        cartItem.setTotalPrice(); // установка новой общей суммы у предмета
-
-        cart.addItem(cartItem);
+        // если товар уже в корзине, увеличивается его кол-во, иначе создается новая позиция
+        CartItem cartItem = cart.addProduct(product, quantity);
 
         cartItemRepository.save(cartItem);
         cartRepository.save(cart);
     }
 
+    @Transactional
     @Override
     public void removeItemFromCart(Long cartId, Long productId) {
         Cart cart = cartService.getCart(cartId);
-        CartItem itemToRemove = getCartItem(cartId, productId);
+        CartItem itemToRemove = getCartItem(cart, productId);
         cart.removeItem(itemToRemove);
         cartRepository.save(cart);
     }
 
+    @Transactional
     @Override
     public void updateItemQuantity(Long cartId, Long productId, int quantity) {
         Cart cart = cartService.getCart(cartId);
 
-        // обновляет кол-во добавленного товара в корзине
-        cart.getItems()
-                .stream()
-                .filter(item -> item.getProduct().getId().equals(productId))
-                .findFirst()
-                .ifPresent(item ->{
-                    item.setQuantity(quantity);
-                    item.setTotalPrice();
-                });
-
-        // складывает общую сумму товаров в корзине
-        BigDecimal totalAmount = cart.getItems()
-                .stream()
-                .map(CartItem::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal :: add);
+        // обновляет кол-во добавленного товара в корзине, общая сумма корзины пересчитывается на разницу
+        cart.findItem(productId)
+                .ifPresent(item -> cart.updateItemQuantity(item, quantity));
 
-        cart.setTotalAmount(totalAmount);
         cartRepository.save(cart);
     }
 
-    // получает товар из корзины
-    private CartItem getCartItem(Long cartId, Long productId){
+    // несколько позиций за одну транзакцию: товары загружаются одним запросом, изменения сохраняются одним flush
+    @Transactional
+    @Override
+    public Cart addItemsToCart(Long cartId, List<CartItemRequest> items) {
+        Map<Long, Product> productsById = getProducts(productService, items);
         Cart cart = cartService.getCart(cartId);
-        return cart.getItems()
+
+        items.forEach(item -> cart.addProduct(productsById.get(item.getProductId()), item.getQuantity()));
+
+        // новые позиции сохраняются каскадом от корзины
+        return cartRepository.save(cart);
+    }
+
+    // проверяет позиции и загружает их товары одним запросом
+    static Map<Long, Product> getProducts(ProductService productService, List<CartItemRequest> items) {
+        items.forEach(item -> {
+            if (item.getProductId() == null || item.getQuantity() <= 0)
+                throw new IllegalArgumentException("Invalid cart item: productId " + item.getProductId()
+                        + ", quantity " + item.getQuantity());
+        });
+
+        return productService.getProductsByIds(items.stream().map(CartItemRequest::getProductId).distinct().toList())
                 .stream()
-                .filter(item -> item.getProduct().getId().equals(productId))
-                .findFirst().orElseThrow(() -> new ResourceNotFoundException("Product not found"));
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    // получает товар из корзины
+    private CartItem getCartItem(Cart cart, Long productId){
+        return cart.findItem(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
     }
 }
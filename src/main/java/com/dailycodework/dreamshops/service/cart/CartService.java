@@ -1,5 +1,6 @@
 package com.dailycodework.dreamshops.service.cart;
 
+import com.dailycodework.dreamshops.dto.CartDto;
 import com.dailycodework.dreamshops.model.Cart;
 import com.dailycodework.dreamshops.model.User;
 
@@ -11,4 +12,5 @@ public interface CartService {
     BigDecimal getTotalPrice(Long id);
     Cart initializeNewCart(User user);
     Cart getCartByUserId(Long userId);
+    CartDto convertToDto(Cart cart);
 }
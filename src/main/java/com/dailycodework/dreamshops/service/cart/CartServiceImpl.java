@@ -1,42 +1,54 @@
 package com.dailycodework.dreamshops.service.cart;
 
+import com.dailycodework.dreamshops.config.RetryOnConcurrentUpdate;
+import com.dailycodework.dreamshops.dto.CartDto;
+import com.dailycodework.dreamshops.dto.ProductDto;
 import com.dailycodework.dreamshops.exceptions.ResourceNotFoundException;
+import com.dailycodework.dreamshops.mapper.CartMapper;
 import com.dailycodework.dreamshops.model.Cart;
+import com.dailycodework.dreamshops.model.CartItem;
+import com.dailycodework.dreamshops.model.Product;
 import com.dailycodework.dreamshops.model.User;
 import com.dailycodework.dreamshops.repository.CartItemRepository;
 import com.dailycodework.dreamshops.repository.CartRepository;
+import com.dailycodework.dreamshops.service.product.ProductService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CartServiceImpl implements CartService {
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
+    private final ProductService productService;
+    private final CartMapper cartMapper;
 
+    // только чтение: изменения корзины сохраняются явно в методах записи (clearCart, CartItemServiceImpl)
+    @Transactional(readOnly = true)
     @Override
     public Cart getCart(Long id) {
-        Cart cart = cartRepository.findById(id)
+        return cartRepository.findById(id)
                 .orElseThrow(()-> new ResourceNotFoundException("Cart not found"));
-        BigDecimal totalAmount = cart.getTotalAmount();
-        cart.setTotalAmount(totalAmount);
-        return cartRepository.save(cart);
     }
 
+    @RetryOnConcurrentUpdate
     @Transactional
     @Override
     public void clearCart(Long id) {
         Cart cart = getCart(id);
-        cart.setTotalAmount(new BigDecimal(0));
         cartItemRepository.deleteAllByCartId(id);
-        cart.getItems().clear();
+        cart.clearItems();
     }
 
+    @Transactional(readOnly = true)
     @Override
     public BigDecimal getTotalPrice(Long id) {
         Cart cart = getCart(id);
@@ -58,4 +70,15 @@ public class CartServiceImpl implements CartService {
         return Optional.ofNullable(cartRepository.findByUserId(userId))
                 .orElseThrow(() -> new ResourceNotFoundException("This user have no cart"));
     }
+
+    @Override
+    public CartDto convertToDto(Cart cart) {
+        // товары всех позиций конвертируются вместе, изображения загружаются одним запросом
+        List<Product> products = cart.getItems().stream().map(CartItem::getProduct).toList();
+        Map<Long, ProductDto> productsById = productService.getConvertedProducts(products)
+                .stream()
+                .collect(Collectors.toMap(ProductDto::getId, Function.identity(), (first, second) -> first));
+
+        return cartMapper.toDto(cart, productsById);
+    }
 }
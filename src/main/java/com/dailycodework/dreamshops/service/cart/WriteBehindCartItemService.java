@@ -0,0 +1,58 @@
+package com.dailycodework.dreamshops.service.cart;
+
+import com.dailycodework.dreamshops.exceptions.ResourceNotFoundException;
+import com.dailycodework.dreamshops.model.Cart;
+import com.dailycodework.dreamshops.model.CartItem;
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.request.CartItemRequest;
+import com.dailycodework.dreamshops.service.product.ProductService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+@Primary
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "cart.write-behind.enabled", havingValue = "true")
+public class WriteBehindCartItemService implements CartItemService {
+    private final WriteBehindCartStore cartStore;
+    private final ProductService productService;
+
+    @Override
+    public void addItemToCart(Long cartId, Long productId, int quantity) {
+        Product product = productService.getProductById(productId);
+        cartStore.write(cartId, cart -> cart.addProduct(product, quantity));
+    }
+
+    @Override
+    public void removeItemFromCart(Long cartId, Long productId) {
+        cartStore.write(cartId, cart -> {
+            CartItem itemToRemove = cart.findItem(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
+            cart.removeItem(itemToRemove);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateItemQuantity(Long cartId, Long productId, int quantity) {
+        cartStore.write(cartId, cart -> {
+            cart.findItem(productId)
+                    .ifPresent(item -> cart.updateItemQuantity(item, quantity));
+            return null;
+        });
+    }
+
+    @Override
+    public Cart addItemsToCart(Long cartId, List<CartItemRequest> items) {
+        Map<Long, Product> productsById = CartItemServiceImpl.getProducts(productService, items);
+        return cartStore.write(cartId, cart -> {
+            items.forEach(item -> cart.addProduct(productsById.get(item.getProductId()), item.getQuantity()));
+            return WriteBehindCartStore.copyOf(cart);
+        });
+    }
+}
@@ -0,0 +1,59 @@
+package com.dailycodework.dreamshops.service.cart;
+
+import com.dailycodework.dreamshops.dto.CartDto;
+import com.dailycodework.dreamshops.model.Cart;
+import com.dailycodework.dreamshops.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+
+@Primary
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "cart.write-behind.enabled", havingValue = "true")
+public class WriteBehindCartService implements CartService {
+    private final CartServiceImpl cartService;
+    private final WriteBehindCartStore cartStore;
+
+    @Override
+    public Cart getCart(Long id) {
+        cartStore.flush(id);
+        return cartService.getCart(id);
+    }
+
+    @Override
+    public void clearCart(Long id) {
+        cartStore.close(id);
+        boolean cleared = false;
+        try {
+            cartService.clearCart(id);
+            cleared = true;
+        } finally {
+            cartStore.reopen(id, cleared);
+        }
+    }
+
+    @Override
+    public BigDecimal getTotalPrice(Long id) {
+        return cartStore.read(id, Cart::getTotalAmount);
+    }
+
+    @Override
+    public Cart initializeNewCart(User user) {
+        return cartService.initializeNewCart(user);
+    }
+
+    @Override
+    public Cart getCartByUserId(Long userId) {
+        cartStore.closeUserCartUntilCompletion(userId);
+        return cartService.getCartByUserId(userId);
+    }
+
+    @Override
+    public CartDto convertToDto(Cart cart) {
+        return cartService.convertToDto(cart);
+    }
+}
@@ -0,0 +1,470 @@
+package com.dailycodework.dreamshops.service.cart;
+
+import com.dailycodework.dreamshops.exceptions.ResourceNotFoundException;
+import com.dailycodework.dreamshops.model.Cart;
+import com.dailycodework.dreamshops.model.CartItem;
+import com.dailycodework.dreamshops.repository.CartRepository;
+import com.dailycodework.dreamshops.repository.ProductRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cart.write-behind.enabled", havingValue = "true")
+public class WriteBehindCartStore {
+    private final CartRepository cartRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final Shard[] shards;
+    private final Map<Long, Long> cartIdsByUserId = new ConcurrentHashMap<>();
+    // снимки пишутся по одному: более старый снимок не перезапишет более новый
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Duration flushInterval;
+    private final Duration idleTimeout;
+    private final int batchSize;
+    private final ScheduledExecutorService scheduler;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final Timer flushTimer;
+
+    public WriteBehindCartStore(CartRepository cartRepository,
+                                ProductRepository productRepository,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${cart.write-behind.shards:64}") int shardCount,
+                                @Value("${cart.write-behind.flush-interval:5s}") Duration flushInterval,
+                                @Value("${cart.write-behind.idle-timeout:30m}") Duration idleTimeout,
+                                @Value("${cart.write-behind.batch-size:100}") int batchSize) {
+        this.cartRepository = cartRepository;
+        this.productRepository = productRepository;
+        // отдельные транзакции: корзина в памяти не должна попасть в контекст транзакции вызывающего кода
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++)
+            shards[i] = new Shard();
+        this.flushInterval = flushInterval;
+        this.idleTimeout = idleTimeout;
+        this.batchSize = batchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "cart-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        FunctionCounter.builder("cart.store.requests", hits, LongAdder::doubleValue)
+                .tag("result", "hit")
+                .description("Cart reads and writes served from memory")
+                .register(meterRegistry);
+        FunctionCounter.builder("cart.store.requests", misses, LongAdder::doubleValue)
+                .tag("result", "miss")
+                .description("Cart reads and writes that loaded the cart from the database")
+                .register(meterRegistry);
+        Gauge.builder("cart.store.hit.ratio", this, WriteBehindCartStore::hitRatio)
+                .description("Share of cart reads and writes served from memory")
+                .register(meterRegistry);
+        Gauge.builder("cart.store.flush.lag", this, store -> store.flushLag().toMillis() / 1000.0)
+                .baseUnit("seconds")
+                .description("Age of the oldest cart change not yet written to the database")
+                .register(meterRegistry);
+        Gauge.builder("cart.store.size", this, WriteBehindCartStore::size)
+                .description("Carts held in memory")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("cart.store.flush")
+                .description("Writing a batch of changed carts to the database")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        long intervalMillis = flushInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                flushAll();
+                evictIdle();
+            } catch (Exception e) {
+                log.warn("Failed to flush carts", e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public <T> T read(Long cartId, Function<Cart, T> reader) {
+        Shard shard = shardOf(cartId);
+        shard.lock.lock();
+        try {
+            Entry entry = getOrLoad(shard, cartId);
+            return reader.apply(entry.cart);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    // изменение применяется к копии: если mutation бросит исключение, корзина не изменится
+    public <T> T write(Long cartId, Function<Cart, T> mutation) {
+        Shard shard = shardOf(cartId);
+        shard.lock.lock();
+        try {
+            if (shard.closedCarts.containsKey(cartId))
+                throw new ConcurrencyFailureException("Cart " + cartId + " is being checked out");
+            Entry entry = getOrLoad(shard, cartId);
+            Cart cart = copyOf(entry.cart);
+            T result = mutation.apply(cart);
+            entry.cart = cart;
+            if (!entry.dirty) {
+                entry.dirty = true;
+                entry.dirtySince = System.nanoTime();
+            }
+            return result;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    public void flush(Long cartId) {
+        flushLock.lock();
+        try {
+            CartSnapshot snapshot = takeSnapshot(cartId);
+            if (snapshot != null && !writeSnapshots(List.of(snapshot)))
+                throw new IllegalStateException("Failed to write cart " + cartId);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public void flushUserCart(Long userId) {
+        Long cartId = cartIdsByUserId.get(userId);
+        if (cartId != null)
+            flush(cartId);
+    }
+
+    public void close(Long cartId) {
+        flushLock.lock();
+        try {
+            Shard shard = shardOf(cartId);
+            CartSnapshot snapshot;
+            shard.lock.lock();
+            try {
+                Entry entry = shard.carts.get(cartId);
+                snapshot = entry != null && entry.dirty ? snapshot(cartId, entry) : null;
+                shard.closedCarts.merge(cartId, 1, Integer::sum);
+            } finally {
+                shard.lock.unlock();
+            }
+            if (snapshot != null && !writeSnapshots(List.of(snapshot))) {
+                reopen(cartId, false);
+                throw new IllegalStateException("Failed to write cart " + cartId);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public void reopen(Long cartId, boolean evict) {
+        Shard shard = shardOf(cartId);
+        shard.lock.lock();
+        try {
+            shard.closedCarts.computeIfPresent(cartId, (id, count) -> count > 1 ? count - 1 : null);
+            if (evict) {
+                Entry entry = shard.carts.remove(cartId);
+                if (entry != null && entry.userId != null)
+                    cartIdsByUserId.remove(entry.userId);
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    // закрыта до конца транзакции заказа: изменения между чтением корзины и ее очисткой иначе пропали бы
+    public void closeUserCartUntilCompletion(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+            throw new IllegalStateException("Closing a cart requires an active transaction");
+        Long cartId = cartIdsByUserId.get(userId);
+        if (cartId == null)
+            cartId = cartRepository.findIdByUserId(userId).orElse(null);
+        if (cartId == null)
+            return;
+
+        Long closedCartId = cartId;
+        close(closedCartId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                reopen(closedCartId, status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    public void flushAll() {
+        flushLock.lock();
+        try {
+            List<CartSnapshot> snapshots = new ArrayList<>();
+            for (Shard shard : shards) {
+                shard.lock.lock();
+                try {
+                    shard.carts.forEach((cartId, entry) -> {
+                        if (entry.dirty)
+                            snapshots.add(snapshot(cartId, entry));
+                    });
+                } finally {
+                    shard.lock.unlock();
+                }
+            }
+
+            for (int from = 0; from < snapshots.size(); from += batchSize)
+                writeSnapshots(snapshots.subList(from, Math.min(from + batchSize, snapshots.size())));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public void evictIdle() {
+        long idleSince = System.nanoTime() - idleTimeout.toNanos();
+        flushLock.lock();
+        try {
+            for (Shard shard : shards) {
+                shard.lock.lock();
+                try {
+                    Iterator<Entry> entries = shard.carts.values().iterator();
+                    while (entries.hasNext()) {
+                        Entry entry = entries.next();
+                        if (!entry.dirty && entry.lastAccess - idleSince <= 0) {
+                            entries.remove();
+                            if (entry.userId != null)
+                                cartIdsByUserId.remove(entry.userId);
+                        }
+                    }
+                } finally {
+                    shard.lock.unlock();
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public double hitRatio() {
+        double total = hits.sum() + misses.sum();
+        return total == 0 ? 0 : hits.sum() / total;
+    }
+
+    public Duration flushLag() {
+        long now = System.nanoTime();
+        long lag = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                for (Entry entry : shard.carts.values()) {
+                    if (entry.dirty)
+                        lag = Math.max(lag, now - entry.dirtySince);
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return Duration.ofNanos(lag);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                size += shard.carts.size();
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    static Cart copyOf(Cart cart) {
+        Cart copy = new Cart();
+        copy.setId(cart.getId());
+        copy.setUser(cart.getUser());
+        Set<CartItem> items = new HashSet<>();
+        for (CartItem item : cart.getItems()) {
+            CartItem itemCopy = new CartItem(item.getId(), item.getVersion(), item.getQuantity(), item.getUnitPrice(),
+                    item.getTotalPrice(), item.getProduct(), copy);
+            items.add(itemCopy);
+        }
+        copy.setItems(items);
+        return copy;
+    }
+
+    private Entry getOrLoad(Shard shard, Long cartId) {
+        Entry entry = shard.carts.get(cartId);
+        if (entry != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            Cart cart = readTransaction.execute(status -> cartRepository.findWithItemsById(cartId))
+                    .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
+            entry = new Entry(cart);
+            // закрытая корзина может меняться в незафиксированной транзакции, ее состояние из базы не кэшируется
+            if (shard.closedCarts.containsKey(cartId))
+                return entry;
+            shard.carts.put(cartId, entry);
+            if (entry.userId != null)
+                cartIdsByUserId.put(entry.userId, cartId);
+        }
+        entry.lastAccess = System.nanoTime();
+        return entry;
+    }
+
+    private CartSnapshot takeSnapshot(Long cartId) {
+        Shard shard = shardOf(cartId);
+        shard.lock.lock();
+        try {
+            Entry entry = shard.carts.get(cartId);
+            return entry != null && entry.dirty ? snapshot(cartId, entry) : null;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    private static CartSnapshot snapshot(Long cartId, Entry entry) {
+        Map<Long, ItemSnapshot> items = entry.cart.getItems()
+                .stream()
+                .collect(Collectors.toMap(item -> item.getProduct().getId(),
+                        item -> new ItemSnapshot(item.getQuantity(), item.getUnitPrice())));
+        CartSnapshot snapshot = new CartSnapshot(cartId, entry.cart.getTotalAmount(), items, entry.dirtySince);
+        entry.dirty = false;
+        return snapshot;
+    }
+
+    // если запись не удалась, корзины снова помечаются измененными
+    private boolean writeSnapshots(List<CartSnapshot> snapshots) {
+        try {
+            flushTimer.record(() -> writeTransaction.executeWithoutResult(status -> {
+                Map<Long, Cart> carts = cartRepository.findWithItemsByIdIn(
+                                snapshots.stream().map(CartSnapshot::cartId).toList())
+                        .stream()
+                        .collect(Collectors.toMap(Cart::getId, Function.identity()));
+                // корзины, удаленные вместе с пользователем, пропускаются
+                snapshots.forEach(snapshot -> {
+                    Cart cart = carts.get(snapshot.cartId());
+                    if (cart != null)
+                        apply(cart, snapshot);
+                });
+            }));
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to write {} carts, they will be retried", snapshots.size(), e);
+            snapshots.forEach(this::markDirty);
+            return false;
+        }
+    }
+
+    private void apply(Cart cart, CartSnapshot snapshot) {
+        List<CartItem> removedItems = cart.getItems()
+                .stream()
+                .filter(item -> !snapshot.items().containsKey(item.getProduct().getId()))
+                .toList();
+        removedItems.forEach(cart::removeItem);
+
+        snapshot.items().forEach((productId, itemSnapshot) -> {
+            CartItem item = cart.findItem(productId).orElse(null);
+            if (item == null) {
+                // новые позиции сохраняются каскадом от корзины
+                item = new CartItem();
+                item.setProduct(productRepository.getReferenceById(productId));
+                item.setQuantity(itemSnapshot.quantity());
+                item.setUnitPrice(itemSnapshot.unitPrice());
+                item.setTotalPrice();
+                cart.addItem(item);
+            } else if (item.getQuantity() != itemSnapshot.quantity()) {
+                cart.updateItemQuantity(item, itemSnapshot.quantity());
+            }
+        });
+        cart.setTotalAmount(snapshot.totalAmount());
+    }
+
+    private void markDirty(CartSnapshot snapshot) {
+        Shard shard = shardOf(snapshot.cartId());
+        shard.lock.lock();
+        try {
+            Entry entry = shard.carts.get(snapshot.cartId());
+            if (entry == null)
+                return;
+            if (!entry.dirty || snapshot.dirtySince() - entry.dirtySince < 0)
+                entry.dirtySince = snapshot.dirtySince();
+            entry.dirty = true;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    private Shard shardOf(Long cartId) {
+        return shards[Math.floorMod(cartId.hashCode(), shards.length)];
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        // незаписанные изменения сохраняются при остановке приложения
+        flushAll();
+    }
+
+    private static final class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Long, Entry> carts = new HashMap<>();
+        private final Map<Long, Integer> closedCarts = new HashMap<>();
+    }
+
+    private static final class Entry {
+        private Cart cart;
+        private final Long userId;
+        private long lastAccess;
+        private boolean dirty;
+        private long dirtySince;
+
+        private Entry(Cart cart) {
+            this.cart = cart;
+            this.userId = cart.getUser() != null ? cart.getUser().getId() : null;
+        }
+    }
+
+    private record CartSnapshot(Long cartId, BigDecimal totalAmount, Map<Long, ItemSnapshot> items, long dirtySince) {
+    }
+
+    private record ItemSnapshot(int quantity, BigDecimal unitPrice) {
+    }
+}
@@ -0,0 +1,6 @@
+package com.dailycodework.dreamshops.service.catalog;
+
+import java.util.Collection;
+
+public record CatalogChangedEvent(Collection<Long> productIds) {
+}
@@ -0,0 +1,58 @@
+package com.dailycodework.dreamshops.service.catalog;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class CatalogVersion {
+    private final String startTag = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong products = new AtomicLong();
+    private final AtomicLong categories = new AtomicLong();
+
+    public CatalogVersion(@Value("${catalog.instances:1}") int instances) {
+        if (instances != 1)
+            throw new IllegalStateException("Catalog ETags are kept in memory and need a single application instance, "
+                    + "catalog.instances=" + instances);
+    }
+
+    public String productsEtag() {
+        return "\"" + startTag + "-p" + products.get() + "\"";
+    }
+
+    public String categoriesEtag() {
+        return "\"" + startTag + "-c" + categories.get() + "\"";
+    }
+
+    // вызывается при изменении товаров, их изображений или остатков
+    public void productsChanged() {
+        incrementAroundCommit(products);
+    }
+
+    // вызывается при изменении категорий; переименование и удаление категории меняют и товары
+    public void categoriesChanged() {
+        incrementAroundCommit(categories);
+    }
+
+    // до фиксации старый ETag перестает совпадать, после - ETag ответов, прочитанных в промежутке
+    private static void incrementAroundCommit(AtomicLong version) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            version.incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                version.incrementAndGet();
+            }
+
+            @Override
+            public void afterCommit() {
+                version.incrementAndGet();
+            }
+        });
+    }
+}
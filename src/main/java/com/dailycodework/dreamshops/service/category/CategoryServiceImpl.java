@@ -4,8 +4,13 @@ import com.dailycodework.dreamshops.exceptions.AlreadyExistsException;
 import com.dailycodework.dreamshops.exceptions.ResourceNotFoundException;
 import com.dailycodework.dreamshops.model.Category;
 import com.dailycodework.dreamshops.repository.CategoryRepository;
+import com.dailycodework.dreamshops.repository.ProductRepository;
+import com.dailycodework.dreamshops.service.catalog.CatalogChangedEvent;
+import com.dailycodework.dreamshops.service.catalog.CatalogVersion;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,6 +19,9 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersion catalogVersion;
 
     @Override
     public Category getCategoryById(Long id) {
@@ -34,26 +42,39 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Override
     public Category addCategory(Category category) {
-        return Optional.of(category)
+        Category savedCategory = Optional.of(category)
                 .filter(c -> !categoryRepository.existsByName(c.getName()))
                 .map(categoryRepository::save)
                 .orElseThrow(() -> new AlreadyExistsException(category.getName() + " already exists"));
+        catalogVersion.categoriesChanged();
+        return savedCategory;
     }
 
+    // название категории есть в индексах поиска и фасетов, поэтому ее товары переиндексируются
+    @Transactional
     @Override
     public Category updateCategory(Category category, Long id) {
         return categoryRepository.findById(id)
                 .map(oldCategory -> {
                     oldCategory.setName(category.getName());
-                    return categoryRepository.save(oldCategory);
+                    Category savedCategory = categoryRepository.save(oldCategory);
+                    eventPublisher.publishEvent(new CatalogChangedEvent(productRepository.findIdsByCategoryId(id)));
+                    catalogVersion.categoriesChanged();
+                    catalogVersion.productsChanged();
+                    return savedCategory;
                 }).orElseThrow(() -> new ResourceNotFoundException("Category not found"));
     }
 
+    // товары категории удаляются вместе с ней (cascade), их id запоминаются до удаления
+    @Transactional
     @Override
     public void deleteCategoryById(Long id) {
-        categoryRepository.findById(id)
-                .ifPresentOrElse(categoryRepository::delete, () -> {
-                    throw new ResourceNotFoundException("Category not found");
-                });
+        Category category = categoryRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Category not found"));
+        List<Long> productIds = productRepository.findIdsByCategoryId(id);
+        categoryRepository.delete(category);
+        eventPublisher.publishEvent(new CatalogChangedEvent(productIds));
+        catalogVersion.categoriesChanged();
+        catalogVersion.productsChanged();
     }
 }
@@ -0,0 +1,25 @@
+package com.dailycodework.dreamshops.service.image;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+class ContentLocks {
+    private final Lock[] locks;
+
+    ContentLocks() {
+        this(64);
+    }
+
+    ContentLocks(int stripes) {
+        locks = new Lock[stripes];
+        for (int i = 0; i < stripes; i++)
+            locks[i] = new ReentrantLock();
+    }
+
+    Lock forKey(String key) {
+        return locks[Math.floorMod(key.hashCode(), locks.length)];
+    }
+}
@@ -1,14 +1,19 @@
 package com.dailycodework.dreamshops.service.image;
 
 import com.dailycodework.dreamshops.dto.ImageDto;
+import com.dailycodework.dreamshops.enums.ImageSize;
 import com.dailycodework.dreamshops.model.Image;
+import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ImageService {
     Image getImageById(Long id);
     void deleteImageById(Long id);
     List<ImageDto> saveImages(List<MultipartFile> files, Long productId);
     void updateImage(MultipartFile file, Long imageId);
+    Resource getImageContent(Image image);
+    Optional<Resource> getImageVariant(Image image, ImageSize size);
 }
@@ -1,27 +1,48 @@
 package com.dailycodework.dreamshops.service.image;
 
 import com.dailycodework.dreamshops.dto.ImageDto;
+import com.dailycodework.dreamshops.enums.ImageSize;
 import com.dailycodework.dreamshops.exceptions.ResourceNotFoundException;
+import com.dailycodework.dreamshops.mapper.ImageMapper;
 import com.dailycodework.dreamshops.model.Image;
+import com.dailycodework.dreamshops.model.ImageBlob;
 import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.repository.ImageBlobRepository;
 import com.dailycodework.dreamshops.repository.ImageRepository;
+import com.dailycodework.dreamshops.service.catalog.CatalogVersion;
 import com.dailycodework.dreamshops.service.product.ProductService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.sql.rowset.serial.SerialBlob;
 import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Blob;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ImageServiceImpl implements ImageService {
     private final ImageRepository imageRepository;
+    private final ImageBlobRepository imageBlobRepository;
     private final ProductService productService;
-
+    private final ImageStorage imageStorage;
+    private final ImageVariantGenerator imageVariantGenerator;
+    private final ImageMapper imageMapper;
+    private final CatalogVersion catalogVersion;
+    // сохранение строки Image и удаление файла с тем же содержимым не пересекаются
+    private final ContentLocks contentLocks;
 
     @Override
     public Image getImageById(Long id) {
@@ -31,7 +52,11 @@ public class ImageServiceImpl implements ImageService {
 
     @Override
     public void deleteImageById(Long id) {
-        imageRepository.findById(id).ifPresentOrElse(imageRepository::delete, () -> {
+        imageRepository.findById(id).ifPresentOrElse(image -> {
+            imageRepository.delete(image);
+            deleteContentIfUnused(image.getContentHash());
+            catalogVersion.productsChanged();
+        }, () -> {
             throw new ResourceNotFoundException("No image found with id" + id);
         });
     }
@@ -43,47 +68,168 @@ public class ImageServiceImpl implements ImageService {
         List<ImageDto> savedImageDtos = new ArrayList<>();
         for(MultipartFile file: files){
             try{
-                // созданиеImage
+                // созданиеImage, содержимое сохраняется в ImageStorage, в БД остаются только метаданные
                 Image image = new Image();
                 image.setFileName(file.getOriginalFilename());
                 image.setFileType(file.getContentType());
-                image.setImage(new SerialBlob(file.getBytes()));
+                image.setFileSize(file.getSize());
                 image.setProduct(product);
 
                 // сохранение Image в БД
                 String buildDownloadUrl ="/api/v1/images/image/download/";
-                String downloadUrl = buildDownloadUrl + image.getId();
-                image.setDownloadUrl(downloadUrl);
-                Image savedImage = imageRepository.save(image);
+                Image savedImage = saveWithContent(file, contentHash -> {
+                    image.setContentHash(contentHash);
+                    image.setDownloadUrl(buildDownloadUrl + image.getId());
+                    return imageRepository.save(image);
+                });
 
                 savedImage.setDownloadUrl(buildDownloadUrl + savedImage.getId());
                 imageRepository.save(savedImage);
 
+                // уменьшенные копии строятся в фоне, до их готовности отдается оригинал
+                imageVariantGenerator.submit(savedImage.getContentHash());
+
                 // создание DTO для инкапсуляции данных
-                ImageDto imageDto = new ImageDto();
-                imageDto.setId(savedImage.getId());
-                imageDto.setFileName(savedImage.getFileName());
-                imageDto.setDownloadUrl(savedImage.getDownloadUrl());
-                savedImageDtos.add(imageDto);
+                savedImageDtos.add(imageMapper.toDto(savedImage));
 
             }
-            catch (IOException | SQLException e){
+            catch (IOException e){
                 throw new RuntimeException(e.getMessage());
             }
         }
+        // изображения товара входят в его ответы каталога
+        catalogVersion.productsChanged();
         return savedImageDtos;
     }
 
     @Override
     public void updateImage(MultipartFile file, Long imageId) {
         Image image = getImageById(imageId);
+        String oldContentHash = image.getContentHash();
         try {
             image.setFileName(file.getOriginalFilename());
-            image.setFileName(file.getOriginalFilename());
-            image.setImage(new SerialBlob(file.getBytes()));
-            imageRepository.save(image);
-        } catch (IOException | SQLException e) {
+            image.setFileType(file.getContentType());
+            image.setFileSize(file.getSize());
+            saveWithContent(file, contentHash -> {
+                image.setContentHash(contentHash);
+                return imageRepository.save(image);
+            });
+            if (oldContentHash == null)
+                imageBlobRepository.clearContent(imageId);
+            imageVariantGenerator.submit(image.getContentHash());
+            catalogVersion.productsChanged();
+        } catch (IOException e) {
             throw new RuntimeException(e.getMessage());
         }
+        if (oldContentHash != null && !oldContentHash.equals(image.getContentHash()))
+            deleteContentIfUnused(oldContentHash);
+    }
+
+    @Override
+    public Resource getImageContent(Image image) {
+        if (image.getContentHash() != null)
+            return imageStorage.load(image.getContentHash());
+        return imageBlobRepository.findById(image.getId())
+                .map(ImageBlob::getImage)
+                .<Resource>map(BlobResource::new)
+                .orElseThrow(() -> new ResourceNotFoundException("No content found for image with id" + image.getId()));
+    }
+
+    @Override
+    public Optional<Resource> getImageVariant(Image image, ImageSize size) {
+        // у изображений, хранящихся в БД, уменьшенных копий нет
+        if (!size.isVariant() || image.getContentHash() == null)
+            return Optional.empty();
+        Resource variant = imageStorage.loadVariant(image.getContentHash(), size.getParam());
+        if (variant.exists())
+            return Optional.of(variant);
+        // копии еще не построены (или изображение загружено до их появления)
+        imageVariantGenerator.submit(image.getContentHash());
+        return Optional.empty();
+    }
+
+    private String storeContent(MultipartFile file) throws IOException {
+        try (InputStream content = file.getInputStream()) {
+            return imageStorage.store(content);
+        }
+    }
+
+    // строка фиксируется под блокировкой хэша; если файл успели удалить, содержимое сохраняется еще раз
+    private Image saveWithContent(MultipartFile file, Function<String, Image> saveRow) throws IOException {
+        String contentHash = storeContent(file);
+        Lock lock = contentLocks.forKey(contentHash);
+        lock.lock();
+        try {
+            if (!imageStorage.exists(contentHash))
+                contentHash = storeContent(file);
+            return saveRow.apply(contentHash);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // содержимое может быть у нескольких изображений, проверка повторяется под блокировкой хэша
+    private void deleteContentIfUnused(String contentHash) {
+        if (contentHash == null)
+            return;
+        afterCommit(() -> {
+            Lock lock = contentLocks.forKey(contentHash);
+            lock.lock();
+            try {
+                if (!imageRepository.existsByContentHash(contentHash))
+                    imageStorage.delete(contentHash);
+            } catch (IOException e) {
+                log.warn("Failed to delete unused image content {}", contentHash, e);
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    // без активной транзакции действие выполняется сразу
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // содержимое изображения, еще не перенесенного из БД: отдается из Blob без копии в byte[]. MySQL Connector/J
+    // при чтении строки загружает Blob в память целиком, поэтому память не экономится до переноса в ImageStorage
+    private static class BlobResource extends AbstractResource {
+        private final Blob blob;
+
+        BlobResource(Blob blob) {
+            this.blob = blob;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            try {
+                return blob.getBinaryStream();
+            } catch (SQLException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            try {
+                return blob.length();
+            } catch (SQLException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public String getDescription() {
+            return "Image blob";
+        }
     }
 }
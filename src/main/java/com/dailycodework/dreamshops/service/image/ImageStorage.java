@@ -0,0 +1,25 @@
+package com.dailycodework.dreamshops.service.image;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ImageStorage {
+    // сохраняет содержимое и возвращает его ключ (hex SHA-256); одинаковое содержимое хранится один раз
+    String store(InputStream content) throws IOException;
+
+    Resource load(String key);
+
+    default boolean exists(String key) {
+        return load(key).exists();
+    }
+
+    // уменьшенная копия содержимого (variant - например thumb), хранится рядом с оригиналом
+    void storeVariant(String key, String variant, InputStream content) throws IOException;
+
+    Resource loadVariant(String key, String variant);
+
+    // удаляет содержимое вместе со всеми его уменьшенными копиями
+    void delete(String key) throws IOException;
+}
@@ -0,0 +1,212 @@
+package com.dailycodework.dreamshops.service.image;
+
+import com.dailycodework.dreamshops.enums.ImageSize;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+@Slf4j
+@Component
+public class ImageVariantGenerator {
+    private final ImageStorage imageStorage;
+    private final ContentLocks contentLocks;
+    private final ThreadPoolExecutor executor;
+    private final long maxPixels;
+    // ключи, для которых копии уже строятся или ждут в очереди
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    public ImageVariantGenerator(ImageStorage imageStorage,
+                                 ContentLocks contentLocks,
+                                 @Value("${image.variants.threads:2}") int threads,
+                                 @Value("${image.variants.queue-capacity:100}") int queueCapacity,
+                                 @Value("${image.variants.max-pixels:50000000}") long maxPixels) {
+        this.imageStorage = imageStorage;
+        this.contentLocks = contentLocks;
+        this.maxPixels = maxPixels;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "image-variants-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    // при переполнении очереди задача отбрасывается, копии построятся при следующем запросе
+    public void submit(String key) {
+        if (key == null || !pending.add(key))
+            return;
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(key);
+                } catch (Exception e) {
+                    log.warn("Failed to generate variants for image {}", key, e);
+                } finally {
+                    pending.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(key);
+            log.debug("Variant generation queue is full, skipping image {}", key);
+        }
+    }
+
+    void generate(String key) throws IOException {
+        BufferedImage original;
+        String formatName;
+        try (InputStream content = imageStorage.load(key).getInputStream();
+             ImageInputStream input = ImageIO.createImageInputStream(content)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                // формат не поддерживается ImageIO - вместо копий отдается оригинал
+                copyOriginal(key);
+                return;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                formatName = reader.getFormatName();
+                // размер читается из заголовка, без декодирования пикселей
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    log.warn("Image {} is {}x{}, larger than {} pixels, variants are not generated",
+                            key, width, height, maxPixels);
+                    copyOriginal(key);
+                    return;
+                }
+                original = reader.read(0, decodeParam(reader, width, height));
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        for (ImageSize size : ImageSize.values()) {
+            if (!size.isVariant())
+                continue;
+            int maxDimension = size.getMaxDimension();
+            if (original.getWidth() <= maxDimension && original.getHeight() <= maxDimension) {
+                // изображение уже не больше нужного размера
+                copyOriginal(key, size);
+                continue;
+            }
+            byte[] resized = resize(original, maxDimension, formatName);
+            if (resized == null) {
+                copyOriginal(key, size);
+                continue;
+            }
+            storeVariant(key, size, () -> new ByteArrayInputStream(resized));
+        }
+    }
+
+    // в памяти остается изображение не меньше двух наибольших копий по длинной стороне
+    private static ImageReadParam decodeParam(ImageReader reader, int width, int height) {
+        ImageReadParam param = reader.getDefaultReadParam();
+        int subsampling = Math.max(1, Math.max(width, height) / (2 * maxVariantDimension()));
+        if (subsampling > 1)
+            param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        return param;
+    }
+
+    private static int maxVariantDimension() {
+        int max = 0;
+        for (ImageSize size : ImageSize.values()) {
+            if (size.isVariant())
+                max = Math.max(max, size.getMaxDimension());
+        }
+        return max;
+    }
+
+    // масштабирует с сохранением пропорций и кодирует в исходном формате; null - если для формата нет кодировщика
+    private static byte[] resize(BufferedImage original, int maxDimension, String formatName) throws IOException {
+        double scale = Math.min((double) maxDimension / original.getWidth(), (double) maxDimension / original.getHeight());
+        int width = Math.max(1, (int) Math.round(original.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(original.getHeight() * scale));
+
+        // JPEG не поддерживает прозрачность
+        boolean opaque = !original.getColorModel().hasAlpha() || isJpeg(formatName);
+        BufferedImage resized = new BufferedImage(width, height,
+                opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            if (opaque) {
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+            }
+            graphics.drawImage(original, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (!ImageIO.write(resized, formatName, out))
+            return null;
+        return out.toByteArray();
+    }
+
+    private static boolean isJpeg(String formatName) {
+        return "jpeg".equalsIgnoreCase(formatName) || "jpg".equalsIgnoreCase(formatName);
+    }
+
+    private void copyOriginal(String key) throws IOException {
+        for (ImageSize size : ImageSize.values()) {
+            if (size.isVariant())
+                copyOriginal(key, size);
+        }
+    }
+
+    private void copyOriginal(String key, ImageSize size) throws IOException {
+        storeVariant(key, size, () -> imageStorage.load(key).getInputStream());
+    }
+
+    // под блокировкой содержимого: копии удаленного за время построения оригинала не сохраняются
+    private void storeVariant(String key, ImageSize size, VariantContent variant) throws IOException {
+        Lock lock = contentLocks.forKey(key);
+        lock.lock();
+        try {
+            if (!imageStorage.exists(key))
+                return;
+            try (InputStream content = variant.open()) {
+                imageStorage.storeVariant(key, size.getParam(), content);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private interface VariantContent {
+        InputStream open() throws IOException;
+    }
+}
@@ -0,0 +1,127 @@
+package com.dailycodework.dreamshops.service.image;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+@Component
+public class LocalImageStorage implements ImageStorage {
+    private static final String TEMP_DIRECTORY = "tmp";
+
+    private final Path root;
+
+    public LocalImageStorage(@Value("${image.storage.location}") Path root) throws IOException {
+        this.root = root.toAbsolutePath().normalize();
+        Files.createDirectories(this.root.resolve(TEMP_DIRECTORY));
+    }
+
+    @Override
+    public String store(InputStream content) throws IOException {
+        // содержимое пишется во временный файл с одновременным подсчетом хэша, затем переносится на свое место
+        Path tempFile = Files.createTempFile(root.resolve(TEMP_DIRECTORY), "upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(content, digest);
+                 OutputStream out = Files.newOutputStream(tempFile)) {
+                in.transferTo(out);
+            }
+
+            String key = HexFormat.of().formatHex(digest.digest());
+            Path target = resolve(key);
+            if (Files.exists(target))
+                return key; // такое содержимое уже хранится
+
+            Files.createDirectories(target.getParent());
+            move(tempFile, target);
+            return key;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Override
+    public Resource load(String key) {
+        return new FileSystemResource(resolve(key));
+    }
+
+    @Override
+    public void storeVariant(String key, String variant, InputStream content) throws IOException {
+        Path target = resolveVariant(key, variant);
+        Path tempFile = Files.createTempFile(root.resolve(TEMP_DIRECTORY), "variant-", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                content.transferTo(out);
+            }
+            Files.createDirectories(target.getParent());
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Override
+    public Resource loadVariant(String key, String variant) {
+        return new FileSystemResource(resolveVariant(key, variant));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Path original = resolve(key);
+        Files.deleteIfExists(original);
+        if (!Files.isDirectory(original.getParent()))
+            return;
+        try (DirectoryStream<Path> variants = Files.newDirectoryStream(original.getParent(), key + ".*")) {
+            for (Path variant : variants)
+                Files.deleteIfExists(variant);
+        }
+    }
+
+    private Path resolve(String key) {
+        if (key == null || !key.matches("[0-9a-f]{64}"))
+            throw new IllegalArgumentException("Invalid image key: " + key);
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    // уменьшенные копии лежат рядом с оригиналом: abcd...ef.thumb
+    private Path resolveVariant(String key, String variant) {
+        if (variant == null || !variant.matches("[a-z]+"))
+            throw new IllegalArgumentException("Invalid image variant: " + variant);
+        Path original = resolve(key);
+        return original.resolveSibling(key + "." + variant);
+    }
+
+    private void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                Files.move(source, target);
+            } catch (FileAlreadyExistsException ignored) {
+                // тот же файл параллельно сохранил другой запрос
+            }
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
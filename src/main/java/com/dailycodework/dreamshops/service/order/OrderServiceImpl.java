@@ -1,18 +1,21 @@
 package com.dailycodework.dreamshops.service.order;
 
+import com.dailycodework.dreamshops.config.RetryOnConcurrentUpdate;
 import com.dailycodework.dreamshops.dto.OrderDto;
 import com.dailycodework.dreamshops.enums.OrderStatus;
 import com.dailycodework.dreamshops.exceptions.EmptyCartException;
+import com.dailycodework.dreamshops.exceptions.OutOfStockException;
 import com.dailycodework.dreamshops.exceptions.ResourceNotFoundException;
+import com.dailycodework.dreamshops.mapper.OrderMapper;
 import com.dailycodework.dreamshops.model.Cart;
+import com.dailycodework.dreamshops.model.CartItem;
 import com.dailycodework.dreamshops.model.Order;
 import com.dailycodework.dreamshops.model.OrderItem;
-import com.dailycodework.dreamshops.model.Product;
 import com.dailycodework.dreamshops.repository.OrderRepository;
 import com.dailycodework.dreamshops.repository.ProductRepository;
 import com.dailycodework.dreamshops.service.cart.CartService;
+import com.dailycodework.dreamshops.service.catalog.CatalogVersion;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,7 +23,10 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -28,8 +34,10 @@ public class OrderServiceImpl implements OrderService {
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
     private final CartService cartService;
-    private final ModelMapper modelMapper;
+    private final OrderMapper orderMapper;
+    private final CatalogVersion catalogVersion;
 
+    @RetryOnConcurrentUpdate
     @Transactional
     @Override
     public Order placeOrder(Long userId) {
@@ -38,6 +46,8 @@ public class OrderServiceImpl implements OrderService {
         if(cart.getTotalAmount().equals(new BigDecimal("0.00")))
             throw new EmptyCartException("you have no products in your cart");
 
+        reserveInventory(cart);
+
         Order order = createOrder(cart);
         List<OrderItem> orderItemList = createOrderItems(order, cart);
 
@@ -50,6 +60,21 @@ public class OrderServiceImpl implements OrderService {
         return savedOrder;
     }
 
+    // списание остатков всех товаров заказа; если хотя бы одного не хватает, транзакция откатывается целиком
+    private void reserveInventory(Cart cart){
+        // товары списываются в порядке id, чтобы параллельные заказы блокировали строки в одном порядке
+        Map<Long, Integer> quantities = cart.getItems()
+                .stream()
+                .collect(Collectors.groupingBy(cartItem -> cartItem.getProduct().getId(), TreeMap::new,
+                        Collectors.summingInt(CartItem::getQuantity)));
+
+        List<Long> outOfStock = productRepository.decrementInventory(quantities);
+        if (!outOfStock.isEmpty())
+            throw new OutOfStockException("Not enough stock for products " + outOfStock);
+        // остаток входит в ответы каталога
+        catalogVersion.productsChanged();
+    }
+
     private Order createOrder(Cart cart){
         Order order = new Order();
         order.setUser(cart.getUser());
@@ -61,17 +86,12 @@ public class OrderServiceImpl implements OrderService {
     private List<OrderItem> createOrderItems(Order order, Cart cart){
         return cart.getItems()
                 .stream()
-                .map(cartItem -> {
-                    Product product = cartItem.getProduct();
-                    product.setInventory(product.getInventory() - cartItem.getQuantity());
-                    productRepository.save(product);
-                    return new OrderItem(
-                            order,
-                            product,
-                            cartItem.getQuantity(),
-                            cartItem.getUnitPrice()
-                    );
-                }).toList();
+                .map(cartItem -> new OrderItem(
+                        order,
+                        cartItem.getProduct(),
+                        cartItem.getQuantity(),
+                        cartItem.getUnitPrice()
+                )).toList();
     }
 
     private BigDecimal calculateTotalPrice(List<OrderItem> orderItemList){
@@ -101,6 +121,6 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public OrderDto convertToDto(Order order){
-        return modelMapper.map(order, OrderDto.class);
+        return orderMapper.toDto(order);
     }
 }
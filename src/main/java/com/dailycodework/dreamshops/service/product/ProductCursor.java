@@ -0,0 +1,35 @@
+package com.dailycodework.dreamshops.service.product;
+
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+public final class ProductCursor {
+    private static final String PREFIX = "id:";
+
+    private ProductCursor() {
+    }
+
+    public static String encode(Long lastSeenId) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((PREFIX + lastSeenId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // пустой курсор означает первую страницу
+    public static ScrollPosition decode(String cursor) {
+        if (!StringUtils.hasText(cursor))
+            return ScrollPosition.keyset();
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(PREFIX))
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            return ScrollPosition.forward(Map.of("id", Long.parseLong(value.substring(PREFIX.length()))));
+        } catch (IllegalArgumentException e) { // NumberFormatException тоже наследуется от IllegalArgumentException
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
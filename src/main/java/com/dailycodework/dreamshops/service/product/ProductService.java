@@ -3,13 +3,20 @@ package com.dailycodework.dreamshops.service.product;
 import com.dailycodework.dreamshops.dto.ProductDto;
 import com.dailycodework.dreamshops.model.Product;
 import com.dailycodework.dreamshops.request.AddProductRequest;
+import com.dailycodework.dreamshops.request.ProductFilterRequest;
 import com.dailycodework.dreamshops.request.ProductUpdateRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ProductService {
     Product addProduct(AddProductRequest request);
     Product getProductById(Long id);
+    List<Product> getProductsByIds(Collection<Long> ids);
     void deleteProductById(Long id);
     Product updateProduct(ProductUpdateRequest request, Long productId);
     List<Product> getAllProducts();
@@ -19,6 +26,22 @@ public interface ProductService {
     List<Product> getProductsByName(String name);
     List<Product> getProductsByBrandAndName(String category, String name);
     Long countProductsByBrandAndName(String brand, String name);
+
+    Slice<Product> getAllProducts(Pageable pageable);
+    Slice<Product> getProductsByCategory(String category, Pageable pageable);
+    Slice<Product> getProductsByBrand(String brand, Pageable pageable);
+    Slice<Product> getProductsByCategoryAndBrand(String category, String brand, Pageable pageable);
+    Slice<Product> getProductsByName(String name, Pageable pageable);
+    Slice<Product> getProductsByBrandAndName(String brand, String name, Pageable pageable);
+    Slice<Product> filterProducts(ProductFilterRequest filter, Pageable pageable);
+
+    Window<Product> getAllProducts(ScrollPosition position, int size);
+    Window<Product> getProductsByCategory(String category, ScrollPosition position, int size);
+    Window<Product> getProductsByBrand(String brand, ScrollPosition position, int size);
+    Window<Product> getProductsByCategoryAndBrand(String category, String brand, ScrollPosition position, int size);
+    Window<Product> getProductsByName(String name, ScrollPosition position, int size);
+    Window<Product> getProductsByBrandAndName(String brand, String name, ScrollPosition position, int size);
+
     List<ProductDto> getConvertedProducts(List<Product> products);
     ProductDto convertToDto(Product product);
 }
@@ -4,29 +4,54 @@ import com.dailycodework.dreamshops.dto.ImageDto;
 import com.dailycodework.dreamshops.dto.ProductDto;
 import com.dailycodework.dreamshops.exceptions.AlreadyExistsException;
 import com.dailycodework.dreamshops.exceptions.ProductNotFoundException;
+import com.dailycodework.dreamshops.exceptions.VersionConflictException;
+import com.dailycodework.dreamshops.mapper.ImageMapper;
+import com.dailycodework.dreamshops.mapper.ProductMapper;
 import com.dailycodework.dreamshops.model.Category;
-import com.dailycodework.dreamshops.model.Image;
 import com.dailycodework.dreamshops.model.Product;
 import com.dailycodework.dreamshops.repository.CategoryRepository;
 import com.dailycodework.dreamshops.repository.ImageRepository;
 import com.dailycodework.dreamshops.repository.ProductRepository;
+import com.dailycodework.dreamshops.repository.ProductSpecifications;
 import com.dailycodework.dreamshops.request.AddProductRequest;
+import com.dailycodework.dreamshops.request.ProductFilterRequest;
 import com.dailycodework.dreamshops.request.ProductUpdateRequest;
+import com.dailycodework.dreamshops.service.catalog.CatalogChangedEvent;
+import com.dailycodework.dreamshops.service.catalog.CatalogVersion;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
+    // ограничение для непостраничного списка всех товаров
+    static final int MAX_UNPAGED_PRODUCTS = 1000;
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
-    private final ModelMapper modelMapper;
+    private final ProductMapper productMapper;
+    private final ImageMapper imageMapper;
     private final ImageRepository imageRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersion catalogVersion;
 
     @Override
     public Product addProduct(AddProductRequest request) {
@@ -37,7 +62,10 @@ public class ProductServiceImpl implements ProductService {
         Category category = createCategoryIfNotExists(request.getCategory());
         request.setCategory(category);
 
-        return productRepository.save(createProduct(request, category));
+        Product product = productRepository.save(createProduct(request, category));
+        eventPublisher.publishEvent(new CatalogChangedEvent(List.of(product.getId())));
+        catalogVersion.productsChanged();
+        return product;
     }
 
     private Product createProduct(AddProductRequest request, Category category){
@@ -54,8 +82,9 @@ public class ProductServiceImpl implements ProductService {
     private Category createCategoryIfNotExists(Category categoryFromRequest){
         return Optional.ofNullable(categoryRepository.findByName(categoryFromRequest.getName()))
                 .orElseGet(()->{
-                    Category newCategory = new Category(categoryFromRequest.getName());
-                    return categoryRepository.save(newCategory);
+                    Category newCategory = categoryRepository.save(new Category(categoryFromRequest.getName()));
+                    catalogVersion.categoriesChanged();
+                    return newCategory;
                 });
     }
 
@@ -65,18 +94,45 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(()->new ProductNotFoundException("Product not found"));
     }
 
+    // все товары одним запросом (where id in ...); если какого-то нет - ProductNotFoundException
+    @Override
+    public List<Product> getProductsByIds(Collection<Long> ids) {
+        List<Product> products = productRepository.findAllById(ids);
+        if (products.size() != new HashSet<>(ids).size()) {
+            Set<Long> foundIds = products.stream().map(Product::getId).collect(Collectors.toSet());
+            List<Long> missingIds = ids.stream().filter(id -> !foundIds.contains(id)).distinct().toList();
+            throw new ProductNotFoundException("Products not found: " + missingIds);
+        }
+        return products;
+    }
+
+    @Transactional
     @Override
     public void deleteProductById(Long id) {
         productRepository.findById(id)
                 .ifPresentOrElse(productRepository::delete,
                         ()->{throw new ProductNotFoundException("Product not found");});
+        eventPublisher.publishEvent(new CatalogChangedEvent(List.of(id)));
+        catalogVersion.productsChanged();
     }
 
+    // не повторяется при конфликте: клиент с устаревшей версией получает 409, без версии изменение пишется поверх
+    @Transactional
     @Override
     public Product updateProduct(ProductUpdateRequest request, Long productId) {
         return productRepository.findById(productId)
-                .map(existingProduct -> updateExistingProduct(existingProduct, request))
+                .map(existingProduct -> {
+                    if (request.getVersion() != null && existingProduct.getVersion() != request.getVersion())
+                        throw new VersionConflictException("Product was changed by someone else, current version is "
+                                + existingProduct.getVersion());
+                    return updateExistingProduct(existingProduct, request);
+                })
                 .map(productRepository::save)
+                .map(product -> {
+                    eventPublisher.publishEvent(new CatalogChangedEvent(List.of(productId)));
+                    catalogVersion.productsChanged();
+                    return product;
+                })
                 .orElseThrow(() -> new ProductNotFoundException("Product not found"));
     }
 
@@ -94,7 +150,8 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        return productRepository.findAllBy(PageRequest.of(0, MAX_UNPAGED_PRODUCTS, Sort.by("id")))
+                .getContent();
     }
 
     @Override
@@ -132,26 +189,95 @@ public class ProductServiceImpl implements ProductService {
         return productRepository.countByBrandAndName(brand, name);
     }
 
+    @Override
+    public Slice<Product> getAllProducts(Pageable pageable) {
+        return productRepository.findAllBy(pageable);
+    }
+
+    @Override
+    public Slice<Product> getProductsByCategory(String category, Pageable pageable) {
+        return productRepository.findByCategoryName(category, pageable);
+    }
+
+    @Override
+    public Slice<Product> getProductsByBrand(String brand, Pageable pageable) {
+        return productRepository.findByBrand(brand, pageable);
+    }
+
+    @Override
+    public Slice<Product> getProductsByCategoryAndBrand(String category, String brand, Pageable pageable) {
+        return productRepository.findByCategoryNameAndBrand(category, brand, pageable);
+    }
+
+    @Override
+    public Slice<Product> getProductsByName(String name, Pageable pageable) {
+        return productRepository.findByName(name, pageable);
+    }
+
+    @Override
+    public Slice<Product> getProductsByBrandAndName(String brand, String name, Pageable pageable) {
+        return productRepository.findByBrandAndName(brand, name, pageable);
+    }
+
+    @Override
+    public Slice<Product> filterProducts(ProductFilterRequest filter, Pageable pageable) {
+        return productRepository.findSliceBy(ProductSpecifications.matching(filter), pageable);
+    }
+
+    @Override
+    public Window<Product> getAllProducts(ScrollPosition position, int size) {
+        return productRepository.findAllByOrderByIdAsc(position, Limit.of(size));
+    }
+
+    @Override
+    public Window<Product> getProductsByCategory(String category, ScrollPosition position, int size) {
+        return productRepository.findByCategoryNameOrderByIdAsc(category, position, Limit.of(size));
+    }
+
+    @Override
+    public Window<Product> getProductsByBrand(String brand, ScrollPosition position, int size) {
+        return productRepository.findByBrandOrderByIdAsc(brand, position, Limit.of(size));
+    }
+
+    @Override
+    public Window<Product> getProductsByCategoryAndBrand(String category, String brand, ScrollPosition position, int size) {
+        return productRepository.findByCategoryNameAndBrandOrderByIdAsc(category, brand, position, Limit.of(size));
+    }
+
+    @Override
+    public Window<Product> getProductsByName(String name, ScrollPosition position, int size) {
+        return productRepository.findByNameOrderByIdAsc(name, position, Limit.of(size));
+    }
+
+    @Override
+    public Window<Product> getProductsByBrandAndName(String brand, String name, ScrollPosition position, int size) {
+        return productRepository.findByBrandAndNameOrderByIdAsc(brand, name, position, Limit.of(size));
+    }
+
     @Override
     public List<ProductDto> getConvertedProducts(List<Product> products) {
-        return Optional.ofNullable(products)
-                .orElse(Collections.emptyList())
+        if (products == null || products.isEmpty())
+            return Collections.emptyList();
+
+        // изображения всех товаров загружаются одним запросом и группируются по id товара
+        List<Long> productIds = products.stream().map(Product::getId).toList();
+        Map<Long, List<ImageDto>> imagesByProductId = imageRepository.findByProductIdIn(productIds)
                 .stream()
-                .map(this::convertToDto)
+                .collect(Collectors.groupingBy(image -> image.getProduct().getId(),
+                        Collectors.mapping(imageMapper::toDto, Collectors.toList())));
+
+        return products.stream()
+                .map(product -> productMapper.toDto(product,
+                        imagesByProductId.getOrDefault(product.getId(), Collections.emptyList())))
                 .toList();
     }
 
     @Override
     public ProductDto convertToDto(Product product) {
-        ProductDto productDto = modelMapper.map(product, ProductDto.class);
-
-        List<Image> images = imageRepository.findByProductId(product.getId());
-
-        List<ImageDto> imageDtos = images.stream()
-                .map(image -> modelMapper.map(image, ImageDto.class))
+        List<ImageDto> imageDtos = imageRepository.findByProductId(product.getId())
+                .stream()
+                .map(imageMapper::toDto)
                 .toList();
-        productDto.setImages(imageDtos);
-
-        return productDto;
+        return productMapper.toDto(product, imageDtos);
     }
 }
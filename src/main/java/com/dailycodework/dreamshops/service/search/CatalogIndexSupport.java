@@ -0,0 +1,28 @@
+package com.dailycodework.dreamshops.service.search;
+
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.repository.ProductRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.util.function.Consumer;
+
+final class CatalogIndexSupport {
+    private static final int BATCH_SIZE = 500;
+
+    private CatalogIndexSupport() {
+    }
+
+    // все товары по порядку id, пачками по keyset-курсору
+    static void forEachProduct(ProductRepository productRepository, Consumer<Product> action) {
+        ScrollPosition position = ScrollPosition.keyset();
+        Window<Product> window;
+        do {
+            window = productRepository.findAllByOrderByIdAsc(position, Limit.of(BATCH_SIZE));
+            window.forEach(action);
+            if (!window.isEmpty())
+                position = window.positionAt(window.size() - 1);
+        } while (window.hasNext() && !window.isEmpty());
+    }
+}
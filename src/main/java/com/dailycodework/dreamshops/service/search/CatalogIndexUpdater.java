@@ -0,0 +1,40 @@
+package com.dailycodework.dreamshops.service.search;
+
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.repository.ProductRepository;
+import com.dailycodework.dreamshops.service.catalog.CatalogChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+public class CatalogIndexUpdater {
+    private final ProductRepository productRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSuggestionIndex productSuggestionIndex;
+    private final ProductFacetIndex productFacetIndex;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.productIds().isEmpty())
+            return;
+        List<Product> products = productRepository.findAllById(event.productIds());
+        Set<Long> removedIds = new HashSet<>(event.productIds());
+        products.forEach(product -> {
+            removedIds.remove(product.getId());
+            productSearchIndex.index(product);
+            productSuggestionIndex.index(product);
+            productFacetIndex.index(product);
+        });
+        removedIds.forEach(productId -> {
+            productSearchIndex.remove(productId);
+            productSuggestionIndex.remove(productId);
+            productFacetIndex.remove(productId);
+        });
+    }
+}
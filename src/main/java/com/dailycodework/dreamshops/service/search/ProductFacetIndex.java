@@ -0,0 +1,242 @@
+package com.dailycodework.dreamshops.service.search;
+
+import com.dailycodework.dreamshops.dto.ProductFacetsDto;
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class ProductFacetIndex implements ApplicationListener<ApplicationReadyEvent> {
+    private final ProductRepository productRepository;
+    // нижние границы диапазонов цен, кроме первого (от 0)
+    private final List<BigDecimal> priceBounds;
+    private final List<String> priceRanges;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap allProducts = new RoaringBitmap();
+    private final Map<String, RoaringBitmap> brands = new HashMap<>();
+    private final Map<String, RoaringBitmap> categories = new HashMap<>();
+    private final RoaringBitmap[] prices;
+    private final Map<Integer, Entry> entries = new HashMap<>();
+
+    private record Entry(String brand, String category, int priceRange) {
+    }
+
+    public ProductFacetIndex(ProductRepository productRepository,
+                             @Value("${search.facets.price-bounds:1000,5000,10000,25000,50000}") List<BigDecimal> priceBounds) {
+        this.productRepository = productRepository;
+        this.priceBounds = priceBounds.stream().sorted().toList();
+        this.priceRanges = priceRangeNames(this.priceBounds);
+        this.prices = new RoaringBitmap[priceRanges.size()];
+        for (int i = 0; i < prices.length; i++)
+            prices[i] = new RoaringBitmap();
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        rebuild();
+    }
+
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            allProducts.clear();
+            brands.clear();
+            categories.clear();
+            for (RoaringBitmap priceRange : prices)
+                priceRange.clear();
+            entries.clear();
+
+            CatalogIndexSupport.forEachProduct(productRepository, product -> put(id(product.getId()), entry(product)));
+            brands.values().forEach(RoaringBitmap::runOptimize);
+            categories.values().forEach(RoaringBitmap::runOptimize);
+            for (RoaringBitmap priceRange : prices)
+                priceRange.runOptimize();
+            log.info("Product facets built: {} products, {} brands, {} categories",
+                    entries.size(), brands.size(), categories.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Product product) {
+        Entry entry = entry(product);
+        lock.writeLock().lock();
+        try {
+            put(id(product.getId()), entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            delete(id(productId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // пустой или null фильтр не ограничивает; productIds == null - все товары
+    public ProductFacetsDto facets(Collection<Long> productIds, Collection<String> brandFilter,
+                                   Collection<String> categoryFilter, Collection<String> priceFilter) {
+        List<Integer> priceRangeFilter = priceFilter == null ? List.of() : priceFilter.stream()
+                .map(this::priceRangeIndex)
+                .toList();
+
+        lock.readLock().lock();
+        try {
+            RoaringBitmap scope = allProducts;
+            if (productIds != null) {
+                RoaringBitmap selected = new RoaringBitmap();
+                productIds.forEach(productId -> selected.add(id(productId)));
+                scope = RoaringBitmap.and(selected, allProducts);
+            }
+            RoaringBitmap brandSet = union(brandFilter, brands);
+            RoaringBitmap categorySet = union(categoryFilter, categories);
+            RoaringBitmap priceSet = priceRangeFilter.isEmpty() ? null
+                    : RoaringBitmap.or(priceRangeFilter.stream().map(range -> prices[range]).iterator());
+
+            RoaringBitmap all = and(scope, brandSet, categorySet, priceSet);
+            // счетчики фасета - без его собственного фильтра, чтобы были видны другие значения
+            return new ProductFacetsDto(
+                    all.getCardinality(),
+                    counts(brands, and(scope, categorySet, priceSet), true),
+                    counts(categories, and(scope, brandSet, priceSet), true),
+                    counts(priceRangeMap(), and(scope, brandSet, categorySet), false));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(int productId, Entry entry) {
+        delete(productId);
+        entries.put(productId, entry);
+        allProducts.add(productId);
+        if (entry.brand() != null)
+            brands.computeIfAbsent(entry.brand(), key -> new RoaringBitmap()).add(productId);
+        if (entry.category() != null)
+            categories.computeIfAbsent(entry.category(), key -> new RoaringBitmap()).add(productId);
+        if (entry.priceRange() >= 0)
+            prices[entry.priceRange()].add(productId);
+    }
+
+    private void delete(int productId) {
+        Entry entry = entries.remove(productId);
+        if (entry == null)
+            return;
+        allProducts.remove(productId);
+        removeFrom(brands, entry.brand(), productId);
+        removeFrom(categories, entry.category(), productId);
+        if (entry.priceRange() >= 0)
+            prices[entry.priceRange()].remove(productId);
+    }
+
+    private static void removeFrom(Map<String, RoaringBitmap> facet, String value, int productId) {
+        if (value == null)
+            return;
+        RoaringBitmap products = facet.get(value);
+        products.remove(productId);
+        if (products.isEmpty())
+            facet.remove(value);
+    }
+
+    // null, если фильтр не задан; неизвестное значение дает пустое множество
+    private static RoaringBitmap union(Collection<String> filter, Map<String, RoaringBitmap> facet) {
+        if (filter == null || filter.isEmpty())
+            return null;
+        RoaringBitmap result = new RoaringBitmap();
+        filter.forEach(value -> {
+            RoaringBitmap products = facet.get(value);
+            if (products != null)
+                result.or(products);
+        });
+        return result;
+    }
+
+    private static RoaringBitmap and(RoaringBitmap scope, RoaringBitmap... filters) {
+        RoaringBitmap result = scope;
+        for (RoaringBitmap filter : filters) {
+            if (filter != null)
+                result = RoaringBitmap.and(result, filter);
+        }
+        return result;
+    }
+
+    private static Map<String, Integer> counts(Map<String, RoaringBitmap> facet, RoaringBitmap scope, boolean sortByCount) {
+        List<Map.Entry<String, Integer>> counts = new ArrayList<>();
+        facet.forEach((value, products) -> {
+            int count = RoaringBitmap.andCardinality(products, scope);
+            if (count > 0 || !sortByCount)
+                counts.add(Map.entry(value, count));
+        });
+        if (sortByCount)
+            counts.sort(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+        Map<String, Integer> result = new LinkedHashMap<>();
+        counts.forEach(count -> result.put(count.getKey(), count.getValue()));
+        return result;
+    }
+
+    private Map<String, RoaringBitmap> priceRangeMap() {
+        Map<String, RoaringBitmap> result = new LinkedHashMap<>();
+        for (int i = 0; i < prices.length; i++)
+            result.put(priceRanges.get(i), prices[i]);
+        return result;
+    }
+
+    private int priceRangeIndex(String priceRange) {
+        int index = priceRanges.indexOf(priceRange);
+        if (index < 0)
+            throw new IllegalArgumentException("Unknown price range: " + priceRange + ", expected one of " + priceRanges);
+        return index;
+    }
+
+    // диапазон цены: нижняя граница включается, верхняя нет; -1 для товара без цены
+    private int priceRange(BigDecimal price) {
+        if (price == null)
+            return -1;
+        int range = 0;
+        while (range < priceBounds.size() && price.compareTo(priceBounds.get(range)) >= 0)
+            range++;
+        return range;
+    }
+
+    private static List<String> priceRangeNames(List<BigDecimal> bounds) {
+        List<String> names = new ArrayList<>();
+        BigDecimal lower = BigDecimal.ZERO;
+        for (BigDecimal bound : bounds) {
+            names.add(lower.toPlainString() + "-" + bound.toPlainString());
+            lower = bound;
+        }
+        names.add(lower.toPlainString() + "+");
+        return names;
+    }
+
+    private Entry entry(Product product) {
+        return new Entry(product.getBrand(),
+                product.getCategory() != null ? product.getCategory().getName() : null,
+                priceRange(product.getPrice()));
+    }
+
+    // RoaringBitmap хранит 32-битные числа; id товаров пока далеко от этой границы
+    private static int id(Long productId) {
+        return Math.toIntExact(productId);
+    }
+}
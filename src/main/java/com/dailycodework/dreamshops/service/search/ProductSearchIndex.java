@@ -0,0 +1,227 @@
+package com.dailycodework.dreamshops.service.search;
+
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex implements ApplicationListener<ApplicationReadyEvent> {
+    // параметры BM25
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final float NAME_WEIGHT = 3;
+    private static final float BRAND_WEIGHT = 2;
+    private static final float CATEGORY_WEIGHT = 2;
+    private static final float DESCRIPTION_WEIGHT = 1;
+    private static final double PREFIX_MATCH_BOOST = 0.7;
+    // сколько слов индекса может подставиться вместо одного короткого префикса
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private InvertedIndex current = new InvertedIndex();
+    // id удаленных товаров: не переиспользуются, и запоздавшее обновление не вернет товар в индекс
+    private final Set<Long> removedIds = new HashSet<>();
+    private Map<Long, Document> changesDuringRebuild;
+
+    private record Document(Map<String, Float> termFrequencies, float length, long version) {
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        rebuild();
+    }
+
+    // поиск и обновления не ждут чтения товаров из базы
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        InvertedIndex built = new InvertedIndex();
+        boolean loaded = false;
+        int products;
+        int terms;
+        try {
+            CatalogIndexSupport.forEachProduct(productRepository, product -> built.put(product.getId(), document(product)));
+            loaded = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (loaded) {
+                    changesDuringRebuild.forEach((productId, document) -> {
+                        if (document == null)
+                            built.delete(productId);
+                        else
+                            built.put(productId, document);
+                    });
+                    current = built;
+                }
+                changesDuringRebuild = null;
+                products = current.documents.size();
+                terms = current.postings.size();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Product search index built: {} products, {} terms", products, terms);
+    }
+
+    // более старая версия товара уже проиндексированную не заменяет
+    public void index(Product product) {
+        Document document = document(product);
+        lock.writeLock().lock();
+        try {
+            if (removedIds.contains(product.getId()))
+                return;
+            current.put(product.getId(), document);
+            if (changesDuringRebuild != null)
+                changesDuringRebuild.merge(product.getId(), document, ProductSearchIndex::newer);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removedIds.add(productId);
+            current.delete(productId);
+            if (changesDuringRebuild != null)
+                changesDuringRebuild.put(productId, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> search(String query, int limit) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(SearchTokenizer.tokenize(query)));
+        if (queryTerms.isEmpty() || limit <= 0)
+            return List.of();
+
+        lock.readLock().lock();
+        try {
+            InvertedIndex index = current;
+            if (index.documents.isEmpty())
+                return List.of();
+            double averageLength = index.totalLength / index.documents.size();
+
+            Map<Long, Double> scores = new HashMap<>();
+            for (String queryTerm : queryTerms) {
+                Map<Long, Double> termScores = new HashMap<>();
+                int expansions = 0;
+                for (Map.Entry<String, Map<Long, Float>> entry : index.postingsStartingWith(queryTerm).entrySet()) {
+                    if (expansions++ == MAX_PREFIX_EXPANSIONS)
+                        break;
+                    double boost = entry.getKey().length() == queryTerm.length() ? 1 : PREFIX_MATCH_BOOST;
+                    double idf = index.idf(entry.getValue().size());
+                    entry.getValue().forEach((productId, frequency) -> {
+                        double length = index.documents.get(productId).length();
+                        double score = boost * idf * frequency * (K1 + 1)
+                                / (frequency + K1 * (1 - B + B * length / averageLength));
+                        termScores.merge(productId, score, Math::max);
+                    });
+                }
+                termScores.forEach((productId, score) -> scores.merge(productId, score, Double::sum));
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey(Comparator.naturalOrder())))
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return current.documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Document newer(Document existing, Document added) {
+        return added.version() >= existing.version() ? added : existing;
+    }
+
+    private static Document document(Product product) {
+        Map<String, Float> termFrequencies = new HashMap<>();
+        float length = addField(termFrequencies, product.getName(), NAME_WEIGHT)
+                + addField(termFrequencies, product.getBrand(), BRAND_WEIGHT)
+                + addField(termFrequencies, product.getCategory() != null ? product.getCategory().getName() : null,
+                        CATEGORY_WEIGHT)
+                + addField(termFrequencies, product.getDescription(), DESCRIPTION_WEIGHT);
+        return new Document(termFrequencies, length, product.getVersion());
+    }
+
+    private static float addField(Map<String, Float> termFrequencies, String text, float weight) {
+        List<String> terms = SearchTokenizer.tokenize(text);
+        terms.forEach(term -> termFrequencies.merge(term, weight, Float::sum));
+        return terms.size() * weight;
+    }
+
+    private static final class InvertedIndex {
+        // слово -> (id товара -> взвешенная частота слова в товаре)
+        private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+        private final Map<Long, Document> documents = new HashMap<>();
+        private double totalLength;
+
+        private void put(Long productId, Document document) {
+            Document existing = documents.get(productId);
+            if (existing != null && existing.version() > document.version())
+                return;
+            delete(productId);
+            documents.put(productId, document);
+            totalLength += document.length();
+            document.termFrequencies().forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, key -> new HashMap<>()).put(productId, frequency));
+        }
+
+        private void delete(Long productId) {
+            Document document = documents.remove(productId);
+            if (document == null)
+                return;
+            totalLength -= document.length();
+            document.termFrequencies().keySet().forEach(term -> {
+                Map<Long, Float> products = postings.get(term);
+                products.remove(productId);
+                if (products.isEmpty())
+                    postings.remove(term);
+            });
+        }
+
+        private NavigableMap<String, Map<Long, Float>> postingsStartingWith(String prefix) {
+            return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        }
+
+        private double idf(int documentFrequency) {
+            return Math.log(1 + (documents.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.dailycodework.dreamshops.service.search;
+
+import com.dailycodework.dreamshops.dto.ProductFacetsDto;
+import com.dailycodework.dreamshops.model.Product;
+
+import java.util.List;
+
+public interface ProductSearchService {
+    List<Product> searchProducts(String query, int limit);
+    List<String> suggestProducts(String query, int limit);
+    ProductFacetsDto getProductFacets(String query, List<String> brands, List<String> categories, List<String> priceRanges);
+}
@@ -0,0 +1,52 @@
+package com.dailycodework.dreamshops.service.search;
+
+import com.dailycodework.dreamshops.dto.ProductFacetsDto;
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class ProductSearchServiceImpl implements ProductSearchService {
+    private final ProductRepository productRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSuggestionIndex productSuggestionIndex;
+    private final ProductFacetIndex productFacetIndex;
+
+    // товары в порядке релевантности; товары, удаленные после построения индекса, пропускаются
+    @Override
+    public List<Product> searchProducts(String query, int limit) {
+        List<Long> productIds = productSearchIndex.search(query, limit);
+        if (productIds.isEmpty())
+            return Collections.emptyList();
+
+        Map<Long, Integer> ranks = new HashMap<>();
+        for (int i = 0; i < productIds.size(); i++)
+            ranks.put(productIds.get(i), i);
+        return productRepository.findAllById(productIds).stream()
+                .sorted(Comparator.comparing(product -> ranks.get(product.getId())))
+                .toList();
+    }
+
+    @Override
+    public List<String> suggestProducts(String query, int limit) {
+        return productSuggestionIndex.suggest(query, limit);
+    }
+
+    // с запросом query счетчики считаются только по найденным товарам
+    @Override
+    public ProductFacetsDto getProductFacets(String query, List<String> brands, List<String> categories,
+                                             List<String> priceRanges) {
+        List<Long> productIds = query == null || query.isBlank()
+                ? null
+                : productSearchIndex.search(query, Integer.MAX_VALUE);
+        return productFacetIndex.facets(productIds, brands, categories, priceRanges);
+    }
+}
@@ -0,0 +1,224 @@
+package com.dailycodework.dreamshops.service.search;
+
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.repository.OrderRepository;
+import com.dailycodework.dreamshops.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Component
+public class ProductSuggestionIndex implements ApplicationListener<ApplicationReadyEvent> {
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final TaskScheduler taskScheduler;
+    private final Duration refreshInterval;
+    private final Duration rebuildDelay;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Map<Long, Entry> products = new TreeMap<>();
+    private Map<Long, Long> sales = Map.of();
+    private Map<Long, Entry> changesDuringReload;
+    // более старая сборка дерево не подменяет
+    private long generation;
+    private long trieGeneration;
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private volatile SuggestionTrie trie = SuggestionTrie.EMPTY;
+
+    private record Entry(String name, String brand) {
+    }
+
+    private record Snapshot(List<Entry> products, List<Long> weights, long generation) {
+    }
+
+    public ProductSuggestionIndex(ProductRepository productRepository,
+                                  OrderRepository orderRepository,
+                                  TaskScheduler taskScheduler,
+                                  @Value("${search.suggest.refresh-interval:10m}") Duration refreshInterval,
+                                  @Value("${search.suggest.rebuild-delay:1s}") Duration rebuildDelay) {
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.taskScheduler = taskScheduler;
+        this.refreshInterval = refreshInterval;
+        this.rebuildDelay = rebuildDelay;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        rebuild();
+        if (refreshInterval.toMillis() > 0)
+            taskScheduler.scheduleWithFixedDelay(this::refreshSales, Instant.now().plus(refreshInterval), refreshInterval);
+    }
+
+    public synchronized void rebuild() {
+        lock.lock();
+        try {
+            changesDuringReload = new HashMap<>();
+        } finally {
+            lock.unlock();
+        }
+        Map<Long, Entry> loadedProducts = new TreeMap<>();
+        Map<Long, Long> loadedSales = null;
+        try {
+            CatalogIndexSupport.forEachProduct(productRepository,
+                    product -> loadedProducts.put(product.getId(), entry(product)));
+            loadedSales = loadSales();
+        } finally {
+            lock.lock();
+            try {
+                if (loadedSales != null) {
+                    changesDuringReload.forEach((productId, entry) -> {
+                        if (entry == null)
+                            loadedProducts.remove(productId);
+                        else
+                            loadedProducts.put(productId, entry);
+                    });
+                    products = loadedProducts;
+                    sales = loadedSales;
+                    generation++;
+                }
+                changesDuringReload = null;
+            } finally {
+                lock.unlock();
+            }
+        }
+        rebuildTrie();
+        log.info("Product suggestions built: {} suggestions", trie.size());
+    }
+
+    // товары между перечитываниями обновляются событиями каталога
+    void refreshSales() {
+        try {
+            Map<Long, Long> loadedSales = loadSales();
+            lock.lock();
+            try {
+                sales = loadedSales;
+                generation++;
+            } finally {
+                lock.unlock();
+            }
+            scheduleRebuild();
+        } catch (Exception e) {
+            log.warn("Failed to refresh product sales for suggestions", e);
+        }
+    }
+
+    public void index(Product product) {
+        Entry entry = entry(product);
+        lock.lock();
+        try {
+            products.put(product.getId(), entry);
+            if (changesDuringReload != null)
+                changesDuringReload.put(product.getId(), entry);
+            generation++;
+        } finally {
+            lock.unlock();
+        }
+        scheduleRebuild();
+    }
+
+    public void remove(Long productId) {
+        lock.lock();
+        try {
+            if (changesDuringReload != null)
+                changesDuringReload.put(productId, null);
+            if (products.remove(productId) == null)
+                return;
+            generation++;
+        } finally {
+            lock.unlock();
+        }
+        scheduleRebuild();
+    }
+
+    public List<String> suggest(String query, int limit) {
+        String prefix = String.join(" ", SearchTokenizer.tokenize(query));
+        if (prefix.isEmpty())
+            return List.of();
+        return trie.suggest(prefix, limit).stream()
+                .map(SuggestionTrie.Suggestion::text)
+                .toList();
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true))
+            taskScheduler.schedule(this::rebuildTrie, Instant.now().plus(rebuildDelay));
+    }
+
+    private void rebuildTrie() {
+        // изменения, пришедшие во время сборки, назначат следующую перестройку
+        rebuildScheduled.set(false);
+        try {
+            Snapshot snapshot = snapshot();
+            SuggestionTrie built = build(snapshot);
+            lock.lock();
+            try {
+                if (snapshot.generation() > trieGeneration) {
+                    trie = built;
+                    trieGeneration = snapshot.generation();
+                }
+            } finally {
+                lock.unlock();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to rebuild product suggestions", e);
+        }
+    }
+
+    private Snapshot snapshot() {
+        lock.lock();
+        try {
+            List<Long> weights = new ArrayList<>(products.size());
+            products.keySet().forEach(productId -> weights.add(1 + sales.getOrDefault(productId, 0L)));
+            return new Snapshot(new ArrayList<>(products.values()), weights, generation);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static SuggestionTrie build(Snapshot snapshot) {
+        // "Samsung" и "SAMSUNG" - одна подсказка, веса складываются
+        Map<String, SuggestionTrie.Suggestion> suggestions = new LinkedHashMap<>();
+        for (int i = 0; i < snapshot.products().size(); i++) {
+            Entry entry = snapshot.products().get(i);
+            long weight = snapshot.weights().get(i);
+            addSuggestion(suggestions, entry.name(), weight);
+            addSuggestion(suggestions, entry.brand(), weight);
+        }
+        return SuggestionTrie.build(new ArrayList<>(suggestions.values()));
+    }
+
+    private Map<Long, Long> loadSales() {
+        Map<Long, Long> loadedSales = new HashMap<>();
+        orderRepository.findProductSales()
+                .forEach(productSales -> loadedSales.put(productSales.getProductId(), productSales.getQuantity()));
+        return loadedSales;
+    }
+
+    private static void addSuggestion(Map<String, SuggestionTrie.Suggestion> suggestions, String text, long weight) {
+        String key = String.join(" ", SearchTokenizer.tokenize(text));
+        if (key.isEmpty())
+            return;
+        suggestions.merge(key, new SuggestionTrie.Suggestion(text.strip(), weight),
+                (existing, added) -> new SuggestionTrie.Suggestion(existing.text(), existing.weight() + weight));
+    }
+
+    private static Entry entry(Product product) {
+        return new Entry(product.getName(), product.getBrand());
+    }
+}
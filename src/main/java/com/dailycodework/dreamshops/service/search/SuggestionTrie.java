@@ -0,0 +1,176 @@
+package com.dailycodework.dreamshops.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+public final class SuggestionTrie {
+    public static final SuggestionTrie EMPTY = build(List.of());
+
+    private final Node root;
+    private final String[] texts;
+    private final long[] weights;
+
+    public record Suggestion(String text, long weight) {
+    }
+
+    private static final class Node {
+        private final char[] label;
+        private final Node[] children;
+        private final int[] suggestions;
+        private final long maxWeight;
+
+        private Node(char[] label, Node[] children, int[] suggestions, long maxWeight) {
+            this.label = label;
+            this.children = children;
+            this.suggestions = suggestions;
+            this.maxWeight = maxWeight;
+        }
+    }
+
+    private record Key(String key, int suggestion) {
+    }
+
+    private record Candidate(Node node, int suggestion, long weight, int order) {
+    }
+
+    private SuggestionTrie(Node root, String[] texts, long[] weights) {
+        this.root = root;
+        this.texts = texts;
+        this.weights = weights;
+    }
+
+    // подсказки с одинаковым нормализованным текстом должны быть объединены заранее
+    public static SuggestionTrie build(List<Suggestion> suggestions) {
+        List<Suggestion> sorted = suggestions.stream()
+                .sorted(Comparator.comparing(Suggestion::text))
+                .toList();
+        String[] texts = new String[sorted.size()];
+        long[] weights = new long[sorted.size()];
+        List<Key> keys = new ArrayList<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            texts[i] = sorted.get(i).text();
+            weights[i] = sorted.get(i).weight();
+            List<String> words = SearchTokenizer.tokenize(texts[i]);
+            for (int start = 0; start < words.size(); start++)
+                keys.add(new Key(String.join(" ", words.subList(start, words.size())), i));
+        }
+        keys.sort(Comparator.comparing(Key::key).thenComparingInt(Key::suggestion));
+
+        Key[] keyArray = keys.toArray(Key[]::new);
+        return new SuggestionTrie(buildNode(keyArray, 0, keyArray.length, 0, 0, weights), texts, weights);
+    }
+
+    private static Node buildNode(Key[] keys, int from, int to, int labelStart, int depth, long[] weights) {
+        char[] label = from < to ? keys[from].key().substring(labelStart, depth).toCharArray() : new char[0];
+        long maxWeight = 0;
+
+        // ключи, которые заканчиваются здесь, в отсортированном списке идут первыми
+        int end = from;
+        while (end < to && keys[end].key().length() == depth)
+            end++;
+        int[] suggestions = Arrays.stream(keys, from, end).mapToInt(Key::suggestion).distinct().toArray();
+        for (int suggestion : suggestions)
+            maxWeight = Math.max(maxWeight, weights[suggestion]);
+
+        List<Node> children = new ArrayList<>();
+        int groupStart = end;
+        while (groupStart < to) {
+            char first = keys[groupStart].key().charAt(depth);
+            int groupEnd = groupStart + 1;
+            while (groupEnd < to && keys[groupEnd].key().charAt(depth) == first)
+                groupEnd++;
+            // общий префикс отсортированной группы - общий префикс ее первого и последнего ключа
+            int childDepth = commonPrefixLength(keys[groupStart].key(), keys[groupEnd - 1].key());
+            Node child = buildNode(keys, groupStart, groupEnd, depth, childDepth, weights);
+            children.add(child);
+            maxWeight = Math.max(maxWeight, child.maxWeight);
+            groupStart = groupEnd;
+        }
+        return new Node(label, children.toArray(Node[]::new), suggestions, maxWeight);
+    }
+
+    private static int commonPrefixLength(String first, String second) {
+        int length = Math.min(first.length(), second.length());
+        int i = 0;
+        while (i < length && first.charAt(i) == second.charAt(i))
+            i++;
+        return i;
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        List<Suggestion> result = new ArrayList<>();
+        Node node = find(prefix);
+        if (node == null || limit <= 0)
+            return result;
+
+        // при равном весе готовая подсказка раньше узла, из узлов - добавленный последним (обход в глубину)
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(Comparator.comparingLong(Candidate::weight).reversed()
+                .thenComparing(candidate -> candidate.node() != null)
+                .thenComparing(Comparator.comparingInt(Candidate::order).reversed()));
+        int order = 0;
+        queue.add(new Candidate(node, -1, node.maxWeight, order++));
+        // одна подсказка может найтись по нескольким своим словам
+        BitSet added = new BitSet(texts.length);
+        while (!queue.isEmpty() && result.size() < limit) {
+            Candidate candidate = queue.poll();
+            if (candidate.node() == null) {
+                if (!added.get(candidate.suggestion())) {
+                    added.set(candidate.suggestion());
+                    result.add(new Suggestion(texts[candidate.suggestion()], candidate.weight()));
+                }
+                continue;
+            }
+            Node[] children = candidate.node().children;
+            for (int i = children.length - 1; i >= 0; i--)
+                queue.add(new Candidate(children[i], -1, children[i].maxWeight, order++));
+            int[] suggestions = candidate.node().suggestions;
+            for (int i = suggestions.length - 1; i >= 0; i--)
+                queue.add(new Candidate(null, suggestions[i], weights[suggestions[i]], order++));
+        }
+        return result;
+    }
+
+    public int size() {
+        return texts.length;
+    }
+
+    // префикс может закончиться посреди метки узла
+    private Node find(String prefix) {
+        Node node = root;
+        int position = 0;
+        while (position < prefix.length()) {
+            Node child = child(node, prefix.charAt(position));
+            if (child == null)
+                return null;
+            int matched = 0;
+            while (matched < child.label.length && position < prefix.length()) {
+                if (child.label[matched] != prefix.charAt(position))
+                    return null;
+                matched++;
+                position++;
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    private static Node child(Node node, char first) {
+        int low = 0;
+        int high = node.children.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char middleFirst = node.children[middle].label[0];
+            if (middleFirst < first)
+                low = middle + 1;
+            else if (middleFirst > first)
+                high = middle - 1;
+            else
+                return node.children[middle];
+        }
+        return null;
+    }
+}
@@ -3,12 +3,13 @@ package com.dailycodework.dreamshops.service.user;
 import com.dailycodework.dreamshops.dto.UserDto;
 import com.dailycodework.dreamshops.exceptions.AlreadyExistsException;
 import com.dailycodework.dreamshops.exceptions.ResourceNotFoundException;
+import com.dailycodework.dreamshops.mapper.UserMapper;
 import com.dailycodework.dreamshops.model.User;
 import com.dailycodework.dreamshops.repository.UserRepository;
 import com.dailycodework.dreamshops.request.CreateUserRequest;
 import com.dailycodework.dreamshops.request.UserUpdateRequest;
+import com.dailycodework.dreamshops.security.user.ShopUserDetailsCache;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -20,8 +21,9 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
-    private final ModelMapper modelMapper;
+    private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
+    private final ShopUserDetailsCache userDetailsCache;
 
     @Override
     public User getUserById(Long userId) {
@@ -54,14 +56,18 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public void deleteUser(Long userId) {
-        userRepository.findById(userId).ifPresentOrElse(userRepository :: delete, () ->{
+        userRepository.findById(userId).ifPresentOrElse(user -> {
+            userRepository.delete(user);
+            // удаленный пользователь не должен проходить проверку токена из кэша
+            userDetailsCache.evict(user.getEmail());
+        }, () ->{
             throw new ResourceNotFoundException("User not found");
         });
     }
 
     @Override
     public UserDto convertUserToDto(User user){
-        return modelMapper.map(user, UserDto.class);
+        return userMapper.toDto(user);
     }
 
     @Override
@@ -0,0 +1,111 @@
+package com.dailycodework.dreamshops.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConnectionLimitingDataSourceTest {
+    private DataSource targetDataSource;
+    private ConnectionLimitingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        targetDataSource = mock(DataSource.class);
+        when(targetDataSource.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        dataSource = new ConnectionLimitingDataSource(targetDataSource, 1, 100);
+    }
+
+    @Test
+    public void getConnection_SecondConnectionOfThreadDoesNotWaitForPermit() throws SQLException {
+        // Arrange
+        Connection transactionConnection = dataSource.getConnection();
+
+        // Act
+        Connection idGeneratorConnection = dataSource.getConnection();
+
+        // Assert
+        assertEquals(0, dataSource.availablePermits());
+        idGeneratorConnection.close();
+        assertEquals(0, dataSource.availablePermits());
+        transactionConnection.close();
+        assertEquals(1, dataSource.availablePermits());
+    }
+
+    @Test
+    public void close_OuterConnectionBeforeInner_KeepsPermitUntilLastConnectionIsClosed() throws Exception {
+        // Arrange
+        Connection outer = dataSource.getConnection();
+        Connection inner = dataSource.getConnection();
+
+        // Act
+        outer.close();
+
+        // Assert: соединение inner еще открыто, другой поток ждет
+        assertEquals(0, dataSource.availablePermits());
+        Connection next = dataSource.getConnection();
+        assertEquals(0, dataSource.availablePermits());
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> CompletableFuture.supplyAsync(this::getConnection).get());
+        assertInstanceOf(SQLTransientConnectionException.class, exception.getCause().getCause());
+
+        inner.close();
+        assertEquals(0, dataSource.availablePermits());
+        next.close();
+        assertEquals(1, dataSource.availablePermits());
+    }
+
+    @Test
+    public void getConnection_WhenAllPermitsAreHeldByOtherThreads() throws Exception {
+        // Arrange
+        Connection connection = dataSource.getConnection();
+
+        // Act
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> CompletableFuture.supplyAsync(this::getConnection).get());
+
+        // Assert
+        assertInstanceOf(SQLTransientConnectionException.class, exception.getCause().getCause());
+        connection.close();
+        assertDoesNotThrow(() -> CompletableFuture.supplyAsync(this::getConnection).get().close());
+    }
+
+    @Test
+    public void close_ReleasesPermitOnce() throws SQLException {
+        // Arrange
+        Connection connection = dataSource.getConnection();
+
+        // Act
+        connection.close();
+        connection.close();
+
+        // Assert
+        assertEquals(1, dataSource.availablePermits());
+    }
+
+    @Test
+    public void getConnection_WhenTargetFails_ReleasesPermit() throws SQLException {
+        // Arrange
+        when(targetDataSource.getConnection()).thenThrow(new SQLException("Database is down"));
+
+        // Act and Assert
+        assertThrows(SQLException.class, () -> dataSource.getConnection());
+        assertEquals(1, dataSource.availablePermits());
+    }
+
+    private Connection getConnection() {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
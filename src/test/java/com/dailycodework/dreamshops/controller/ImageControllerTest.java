@@ -0,0 +1,121 @@
+package com.dailycodework.dreamshops.controller;
+
+import com.dailycodework.dreamshops.enums.ImageSize;
+import com.dailycodework.dreamshops.model.Image;
+import com.dailycodework.dreamshops.service.image.ImageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ImageControllerTest {
+    private static final String CONTENT_HASH = "a".repeat(64);
+    private static final String DOWNLOAD_URL = "/api/v1/images/image/download/1";
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.UTF_8);
+
+    @InjectMocks
+    private ImageController imageController;
+
+    @Mock
+    private ImageService imageService;
+
+    private MockMvc mockMvc;
+    private Image image;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        mockMvc = MockMvcBuilders.standaloneSetup(imageController)
+                .addPlaceholderValue("api.prefix", "/api/v1")
+                .build();
+
+        image = new Image();
+        image.setId(1L);
+        image.setFileName("image.jpg");
+        image.setFileType("image/jpeg");
+        image.setContentHash(CONTENT_HASH);
+        image.setUpdatedAt(Instant.parse("2024-01-01T00:00:00Z"));
+
+        when(imageService.getImageById(1L))
+                .thenReturn(image);
+        when(imageService.getImageContent(image))
+                .thenReturn(new ByteArrayResource(CONTENT));
+    }
+
+    @Test
+    public void downloadImage_ReturnsContentWithValidators() throws Exception {
+        mockMvc.perform(get(DOWNLOAD_URL))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + CONTENT_HASH + "\""))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    public void downloadImage_WhenETagMatches() throws Exception {
+        mockMvc.perform(get(DOWNLOAD_URL).header(HttpHeaders.IF_NONE_MATCH, "\"" + CONTENT_HASH + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    public void downloadImage_WhenNotModifiedSince() throws Exception {
+        mockMvc.perform(get(DOWNLOAD_URL).header(HttpHeaders.IF_MODIFIED_SINCE, "Mon, 01 Jan 2024 00:00:00 GMT"))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void downloadImage_WhenRangeRequested() throws Exception {
+        mockMvc.perform(get(DOWNLOAD_URL).header(HttpHeaders.RANGE, "bytes=4-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 4-9/10"))
+                .andExpect(content().bytes("456789".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void downloadImage_WhenETagChanged() throws Exception {
+        mockMvc.perform(get(DOWNLOAD_URL).header(HttpHeaders.IF_NONE_MATCH, "\"" + "b".repeat(64) + "\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    public void downloadImage_WhenVariantIsReady() throws Exception {
+        byte[] thumb = "thumb".getBytes(StandardCharsets.UTF_8);
+        when(imageService.getImageVariant(image, ImageSize.THUMB))
+                .thenReturn(Optional.of(new ByteArrayResource(thumb)));
+
+        mockMvc.perform(get(DOWNLOAD_URL).param("size", "thumb"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + CONTENT_HASH + "-thumb\""))
+                .andExpect(content().bytes(thumb));
+    }
+
+    @Test
+    public void downloadImage_WhenVariantIsNotReady() throws Exception {
+        mockMvc.perform(get(DOWNLOAD_URL).param("size", "medium"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + CONTENT_HASH + "\""))
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    public void downloadImage_WhenSizeIsUnknown() throws Exception {
+        mockMvc.perform(get(DOWNLOAD_URL).param("size", "huge"))
+                .andExpect(status().isBadRequest());
+    }
+}
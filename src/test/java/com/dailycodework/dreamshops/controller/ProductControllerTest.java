@@ -0,0 +1,103 @@
+package com.dailycodework.dreamshops.controller;
+
+import com.dailycodework.dreamshops.dto.ProductDto;
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.service.catalog.CatalogVersion;
+import com.dailycodework.dreamshops.service.product.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ProductControllerTest {
+    private static final String ALL_PRODUCTS_URL = "/api/v1/products/all";
+    private static final String PRODUCT_URL = "/api/v1/products/product/1/product";
+
+    @InjectMocks
+    private ProductController productController;
+
+    @Mock
+    private ProductService productService;
+    @Spy
+    private CatalogVersion catalogVersion = new CatalogVersion(1);
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        mockMvc = MockMvcBuilders.standaloneSetup(productController)
+                .addPlaceholderValue("api.prefix", "/api/v1")
+                .build();
+
+        Product product = new Product();
+        ProductDto productDto = new ProductDto();
+        productDto.setId(1L);
+        when(productService.getAllProducts())
+                .thenReturn(List.of(product));
+        when(productService.getConvertedProducts(List.of(product)))
+                .thenReturn(List.of(productDto));
+        when(productService.getProductById(1L))
+                .thenReturn(product);
+        when(productService.convertToDto(product))
+                .thenReturn(productDto);
+    }
+
+    @Test
+    public void getAllProducts_ReturnsCatalogETag() throws Exception {
+        mockMvc.perform(get(ALL_PRODUCTS_URL))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, catalogVersion.productsEtag()))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, public"))
+                .andExpect(jsonPath("$.data[0].id").value(1));
+    }
+
+    @Test
+    public void getAllProducts_WhenETagMatches_DoesNotQueryProducts() throws Exception {
+        mockMvc.perform(get(ALL_PRODUCTS_URL).header(HttpHeaders.IF_NONE_MATCH, catalogVersion.productsEtag()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, catalogVersion.productsEtag()))
+                .andExpect(content().bytes(new byte[0]));
+
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    public void getAllProducts_WhenCatalogChanged() throws Exception {
+        // Arrange
+        String etag = catalogVersion.productsEtag();
+        catalogVersion.productsChanged();
+
+        // Act and Assert
+        mockMvc.perform(get(ALL_PRODUCTS_URL).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, catalogVersion.productsEtag()));
+    }
+
+    @Test
+    public void getProductById_WhenOneOfETagsMatches() throws Exception {
+        mockMvc.perform(get(PRODUCT_URL).header(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + catalogVersion.productsEtag()))
+                .andExpect(status().isNotModified());
+
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    public void getProductById_ReturnsCatalogETag() throws Exception {
+        mockMvc.perform(get(PRODUCT_URL))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, catalogVersion.productsEtag()))
+                .andExpect(jsonPath("$.data.id").value(1));
+    }
+}
@@ -0,0 +1,80 @@
+package com.dailycodework.dreamshops.data;
+
+import com.dailycodework.dreamshops.model.Order;
+import com.dailycodework.dreamshops.model.OrderItem;
+import com.dailycodework.dreamshops.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true"
+})
+@Import(IdGeneratorInitializer.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdGeneratorInitializerTest {
+
+    @Autowired
+    private IdGeneratorInitializer idGeneratorInitializer;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        jdbcTemplate.update("delete from order_item");
+        jdbcTemplate.update("update id_generator set next_val = 0");
+    }
+
+    @Test
+    public void afterPropertiesSet_StartsGeneratorAboveExistingIds() {
+        // Arrange
+        // строка, вставленная до перехода с AUTO_INCREMENT
+        jdbcTemplate.update("insert into order_item (id, quantity, price) values (?, ?, ?)", 500L, 1, BigDecimal.ONE);
+
+        // Act
+        idGeneratorInitializer.afterPropertiesSet();
+        Long itemId = saveOrderWithItem();
+
+        // Assert
+        assertEquals(501L, itemId);
+        assertEquals(550L, nextValue());
+    }
+
+    @Test
+    public void afterPropertiesSet_WhenGeneratorExists_DoesNotChangeIt() {
+        // Arrange
+        // счетчик, которым уже пользуется другой экземпляр
+        jdbcTemplate.update("update id_generator set next_val = ? where sequence_name = ?", 1000L, "order_item");
+        jdbcTemplate.update("insert into order_item (id, quantity, price) values (?, ?, ?)", 500L, 1, BigDecimal.ONE);
+
+        // Act
+        idGeneratorInitializer.afterPropertiesSet();
+
+        // Assert
+        assertEquals(1000L, nextValue());
+    }
+
+    private Long saveOrderWithItem() {
+        Order order = new Order();
+        order.getOrderItems().add(new OrderItem(order, null, 1, BigDecimal.TEN));
+        return orderRepository.save(order).getOrderItems().iterator().next().getId();
+    }
+
+    private Long nextValue() {
+        return jdbcTemplate.queryForObject(
+                "select next_val from id_generator where sequence_name = 'order_item'", Long.class);
+    }
+}
@@ -0,0 +1,107 @@
+package com.dailycodework.dreamshops.mapper;
+
+import com.dailycodework.dreamshops.dto.CartItemDto;
+import com.dailycodework.dreamshops.dto.OrderDto;
+import com.dailycodework.dreamshops.dto.OrderItemDto;
+import com.dailycodework.dreamshops.dto.UserDto;
+import com.dailycodework.dreamshops.enums.OrderStatus;
+import com.dailycodework.dreamshops.model.Cart;
+import com.dailycodework.dreamshops.model.CartItem;
+import com.dailycodework.dreamshops.model.Category;
+import com.dailycodework.dreamshops.model.Order;
+import com.dailycodework.dreamshops.model.OrderItem;
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserMapperTest {
+    private final UserMapper userMapper = new UserMapper(new OrderMapper(), new CartMapper(new ProductMapper()));
+
+    @Test
+    public void toDto_MapsOrdersAndCart() {
+        // Arrange
+        Category category = new Category("Some category");
+        category.setId(3L);
+        Product product = new Product("Some product", "Some brand", new BigDecimal("9.99"), 5,
+                "Some description", category);
+        product.setId(7L);
+
+        User user = new User();
+        user.setId(1L);
+        user.setFirstName("First Name");
+        user.setLastName("Last Name");
+        user.setEmail("email@example.com");
+
+        Order order = new Order();
+        order.setOrderId(20L);
+        order.setOrderDate(LocalDate.of(2024, 1, 2));
+        order.setTotalAmount(new BigDecimal("19.98"));
+        order.setOrderStatus(OrderStatus.PENDING);
+        order.setUser(user);
+        order.setOrderItems(Set.of(new OrderItem(order, product, 2, new BigDecimal("9.99"))));
+        user.setOrders(List.of(order));
+
+        CartItem cartItem = new CartItem();
+        cartItem.setId(31L);
+        cartItem.setProduct(product);
+        cartItem.setQuantity(2);
+        cartItem.setUnitPrice(new BigDecimal("9.99"));
+        cartItem.setTotalPrice();
+        Cart cart = new Cart();
+        cart.setId(30L);
+        cart.addItem(cartItem);
+        user.setCart(cart);
+
+        // Act
+        UserDto result = userMapper.toDto(user);
+
+        // Assert
+        assertEquals(1L, result.getId());
+        assertEquals("First Name", result.getFirstName());
+        assertEquals("Last Name", result.getLastName());
+        assertEquals("email@example.com", result.getEmail());
+
+        OrderDto orderDto = result.getOrders().get(0);
+        assertEquals(20L, orderDto.getOrderId());
+        assertEquals(1L, orderDto.getUserId());
+        assertEquals(LocalDate.of(2024, 1, 2), orderDto.getOrderDate());
+        assertEquals(new BigDecimal("19.98"), orderDto.getTotalAmount());
+        assertEquals("PENDING", orderDto.getStatus());
+        OrderItemDto orderItemDto = orderDto.getItems().get(0);
+        assertEquals(7L, orderItemDto.getProductId());
+        assertEquals("Some product", orderItemDto.getProductName());
+        assertEquals("Some brand", orderItemDto.getProductBrand());
+        assertEquals(2, orderItemDto.getQuantity());
+        assertEquals(new BigDecimal("9.99"), orderItemDto.getPrice());
+
+        assertEquals(30L, result.getCart().getCartId());
+        assertEquals(new BigDecimal("19.98"), result.getCart().getTotalAmount());
+        CartItemDto cartItemDto = result.getCart().getItems().iterator().next();
+        assertEquals(31L, cartItemDto.getItemId());
+        assertEquals(2, cartItemDto.getQuantity());
+        assertEquals(7L, cartItemDto.getProduct().getId());
+        assertEquals("Some category", cartItemDto.getProduct().getCategory().getName());
+        assertNull(cartItemDto.getProduct().getImages());
+    }
+
+    @Test
+    public void toDto_WhenUserHasNoOrdersAndCart() {
+        // Arrange
+        User user = new User();
+        user.setId(1L);
+
+        // Act
+        UserDto result = userMapper.toDto(user);
+
+        // Assert
+        assertNull(result.getOrders());
+        assertNull(result.getCart());
+    }
+}
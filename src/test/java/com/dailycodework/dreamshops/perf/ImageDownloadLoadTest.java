@@ -0,0 +1,257 @@
+package com.dailycodework.dreamshops.perf;
+
+import com.dailycodework.dreamshops.model.Category;
+import com.dailycodework.dreamshops.model.Image;
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.repository.CategoryRepository;
+import com.dailycodework.dreamshops.repository.ImageRepository;
+import com.dailycodework.dreamshops.repository.ProductRepository;
+import com.dailycodework.dreamshops.service.image.ImageStorage;
+import com.dailycodework.dreamshops.service.image.LocalImageStorage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// тысячи медленных загрузок изображений не должны мешать чтению каталога: пока каждая загрузка отдается
+// perf.download.delay-ms, запросы списка товаров должны отвечать быстрее, чем заканчиваются загрузки.
+// С платформенными потоками (-Dspring.threads.virtual.enabled=false) загрузки занимают все потоки Tomcat
+// и чтение каталога ждет в очереди. Отчет пишется в perf.image-report (target/perf-image-downloads.json)
+@Tag("perf")
+@ActiveProfiles("perf")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ImageDownloadLoadTest {
+    private static final int DOWNLOADS = Integer.getInteger("perf.downloads", 1000);
+    private static final long DOWNLOAD_DELAY_MILLIS = Long.getLong("perf.download.delay-ms", 10000);
+    private static final int CATALOG_READS = Integer.getInteger("perf.catalog-reads", 50);
+    private static final Path REPORT = Path.of(System.getProperty("perf.image-report", "target/perf-image-downloads.json"));
+
+    // загрузки, содержимое которых сейчас отдается клиенту
+    private static final AtomicInteger downloadsInFlight = new AtomicInteger();
+
+    @TestConfiguration
+    static class SlowImageStorageConfig {
+        // медленный клиент или диск: чтение содержимого изображения начинается через DOWNLOAD_DELAY_MILLIS
+        @Bean
+        @Primary
+        ImageStorage slowImageStorage(LocalImageStorage imageStorage) {
+            return new ImageStorage() {
+                @Override
+                public String store(InputStream content) throws IOException {
+                    return imageStorage.store(content);
+                }
+
+                @Override
+                public Resource load(String key) {
+                    return new InputStreamResource(new SlowInputStream(imageStorage.load(key)));
+                }
+
+                @Override
+                public void storeVariant(String key, String variant, InputStream content) throws IOException {
+                    imageStorage.storeVariant(key, variant, content);
+                }
+
+                @Override
+                public Resource loadVariant(String key, String variant) {
+                    return imageStorage.loadVariant(key, variant);
+                }
+
+                @Override
+                public void delete(String key) throws IOException {
+                    imageStorage.delete(key);
+                }
+            };
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    @Autowired
+    private ImageStorage imageStorage;
+    @Autowired
+    private ImageRepository imageRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private HttpClient httpClient;
+    private Long imageId;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Category category = categoryRepository.save(new Category("Perf category"));
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            products.add(new Product("Perf product " + i, "Perf brand", new BigDecimal("10.00"),
+                    100, "Perf description", category));
+        productRepository.saveAll(products);
+
+        byte[] content = new byte[64 * 1024];
+        ThreadLocalRandom.current().nextBytes(content);
+        Image image = new Image();
+        image.setFileName("perf.png");
+        image.setFileType("image/png");
+        image.setContentHash(imageStorage.store(new ByteArrayInputStream(content)));
+        image.setFileSize((long) content.length);
+        image.setProduct(products.get(0));
+        imageId = imageRepository.save(image).getId();
+
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    @Test
+    public void catalogReadsAreNotStarvedBySlowDownloads() throws Exception {
+        // прогрев: первые запросы заметно медленнее из-за JIT
+        LatencyStats warmUp = new LatencyStats();
+        for (int i = 0; i < 50; i++)
+            send(warmUp, uri("/products/all?page=0&size=20"), HttpResponse.BodyHandlers.ofString());
+
+        LatencyStats downloads = new LatencyStats();
+        LatencyStats catalogReads = new LatencyStats();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> requests = new ArrayList<>();
+            for (int i = 0; i < DOWNLOADS; i++)
+                requests.add(executor.submit(() ->
+                        send(downloads, uri("/images/image/download/" + imageId), HttpResponse.BodyHandlers.discarding())));
+
+            // каталог читается, когда загрузки уже начались
+            long deadline = System.nanoTime() + Duration.ofMillis(DOWNLOAD_DELAY_MILLIS).toNanos() / 2;
+            while (downloadsInFlight.get() < DOWNLOADS && System.nanoTime() < deadline)
+                Thread.sleep(10);
+            int inFlightAtStart = downloadsInFlight.get();
+
+            // запросы каталога идут по одному: измеряется время ответа, а не пропускная способность
+            long catalogStart = System.nanoTime();
+            for (int i = 0; i < CATALOG_READS; i++)
+                send(catalogReads, uri("/products/all?page=0&size=20"), HttpResponse.BodyHandlers.ofString());
+            double catalogSeconds = (System.nanoTime() - catalogStart) / 1e9;
+            for (Future<?> request : requests)
+                request.get();
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("virtualThreads", virtualThreads);
+            report.put("downloads", DOWNLOADS);
+            report.put("downloadDelayMillis", DOWNLOAD_DELAY_MILLIS);
+            report.put("downloadsInFlightWhenCatalogReadsStarted", inFlightAtStart);
+            report.put("elapsedSeconds", elapsedSeconds);
+            Map<String, Object> endpoints = new LinkedHashMap<>();
+            endpoints.put("catalog reads", catalogReads.summary(catalogSeconds));
+            endpoints.put("image downloads", downloads.summary(elapsedSeconds));
+            report.put("endpoints", endpoints);
+
+            Files.createDirectories(REPORT.toAbsolutePath().getParent());
+            objectMapper.writeValue(REPORT.toFile(), report);
+            System.out.println(objectMapper.writeValueAsString(report));
+        }
+
+        assertEquals(0, downloads.errors(), "Failed image downloads");
+        assertEquals(0, catalogReads.errors(), "Failed catalog reads");
+        assertTrue(catalogReads.percentileMillis(0.99) < DOWNLOAD_DELAY_MILLIS,
+                "Catalog reads waited for image downloads");
+    }
+
+    private Void send(LatencyStats stats, URI uri, HttpResponse.BodyHandler<?> bodyHandler) throws Exception {
+        long start = System.nanoTime();
+        HttpResponse<?> response = httpClient.send(HttpRequest.newBuilder(uri).GET().build(), bodyHandler);
+        stats.record(System.nanoTime() - start, response.statusCode() == 200);
+        return null;
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + "/api/v1" + path);
+    }
+
+    private static final class SlowInputStream extends FilterInputStream {
+        private boolean started;
+        private boolean closed;
+
+        private SlowInputStream(Resource resource) {
+            super(open(resource));
+        }
+
+        private static InputStream open(Resource resource) {
+            try {
+                return resource.getInputStream();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            waitOnFirstRead();
+            return super.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            waitOnFirstRead();
+            return super.read(buffer, offset, length);
+        }
+
+        private void waitOnFirstRead() throws IOException {
+            if (started)
+                return;
+            started = true;
+            downloadsInFlight.incrementAndGet();
+            try {
+                Thread.sleep(DOWNLOAD_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (started && !closed)
+                downloadsInFlight.decrementAndGet();
+            closed = true;
+            super.close();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.dailycodework.dreamshops.perf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// время ответов одного запроса нагрузочного теста: число запросов, ошибки, пропускная способность и перцентили
+class LatencyStats {
+    private final List<Long> latencies = new ArrayList<>();
+    private int errors;
+
+    synchronized void record(long latencyNanos, boolean success) {
+        latencies.add(latencyNanos);
+        if (!success)
+            errors++;
+    }
+
+    synchronized int errors() {
+        return errors;
+    }
+
+    synchronized double percentileMillis(double quantile) {
+        return percentile(sorted(), quantile);
+    }
+
+    synchronized Map<String, Object> summary(double elapsedSeconds) {
+        long[] sorted = sorted();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", sorted.length);
+        summary.put("errors", errors);
+        summary.put("throughputPerSecond", sorted.length / elapsedSeconds);
+        summary.put("p50Millis", percentile(sorted, 0.50));
+        summary.put("p95Millis", percentile(sorted, 0.95));
+        summary.put("p99Millis", percentile(sorted, 0.99));
+        summary.put("maxMillis", sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+        return summary;
+    }
+
+    private long[] sorted() {
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    // метод ближайшего ранга
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0)
+            return 0;
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(rank - 1, 0)] / 1e6;
+    }
+}
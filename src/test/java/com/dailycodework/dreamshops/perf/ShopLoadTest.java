@@ -0,0 +1,185 @@
+package com.dailycodework.dreamshops.perf;
+
+import com.dailycodework.dreamshops.data.RoleRepository;
+import com.dailycodework.dreamshops.model.Category;
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.model.Role;
+import com.dailycodework.dreamshops.model.User;
+import com.dailycodework.dreamshops.repository.CategoryRepository;
+import com.dailycodework.dreamshops.repository.ProductRepository;
+import com.dailycodework.dreamshops.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// нагрузочный тест по HTTP на профиле perf (встроенная H2): каждый виртуальный пользователь в своем виртуальном потоке
+// повторяет сценарий просмотр каталога -> вход -> добавление в корзину -> заказ.
+// Запуск: mvn -Pperf test -Dperf.users=100 -Dperf.iterations=20; отчет с p50/p95/p99 и пропускной способностью
+// по каждому запросу пишется в perf.report (target/perf-report.json)
+@Tag("perf")
+@ActiveProfiles("perf")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ShopLoadTest {
+    private static final int USERS = Integer.getInteger("perf.users", 50);
+    private static final int ITERATIONS = Integer.getInteger("perf.iterations", 10);
+    private static final int PRODUCTS = Integer.getInteger("perf.products", 200);
+    private static final Path REPORT = Path.of(System.getProperty("perf.report", "target/perf-report.json"));
+    private static final String PASSWORD = "123456";
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final Map<String, LatencyStats> stats = new ConcurrentHashMap<>();
+    private HttpClient httpClient;
+    private List<Long> productIds;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> seed());
+        httpClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    private void seed() {
+        Category category = categoryRepository.save(new Category("Perf category"));
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++)
+            products.add(new Product("Perf product " + i, "Perf brand", new BigDecimal("10.00"),
+                    1_000_000, "Perf description", category));
+        productIds = productRepository.saveAll(products).stream().map(Product::getId).toList();
+
+        // хэш BCrypt считается один раз, у всех пользователей один пароль
+        Role userRole = roleRepository.findByName("ROLE_USER").orElseThrow();
+        String encodedPassword = passwordEncoder.encode(PASSWORD);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setFirstName("Perf");
+            user.setLastName("User" + i);
+            user.setEmail(email(i));
+            user.setPassword(encodedPassword);
+            user.setRoles(Set.of(userRole));
+            users.add(user);
+        }
+        userRepository.saveAll(users);
+    }
+
+    @Test
+    public void shoppingScenario() throws Exception {
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> virtualUsers = new ArrayList<>();
+            for (int i = 0; i < USERS; i++) {
+                int userIndex = i;
+                virtualUsers.add(executor.submit(() -> {
+                    for (int iteration = 0; iteration < ITERATIONS; iteration++)
+                        runScenario(userIndex);
+                    return null;
+                }));
+            }
+            for (Future<?> virtualUser : virtualUsers)
+                virtualUser.get();
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("users", USERS);
+        report.put("iterations", ITERATIONS);
+        report.put("elapsedSeconds", elapsedSeconds);
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        stats.forEach((name, endpointStats) -> endpoints.put(name, endpointStats.summary(elapsedSeconds)));
+        report.put("endpoints", endpoints);
+
+        Files.createDirectories(REPORT.toAbsolutePath().getParent());
+        objectMapper.writeValue(REPORT.toFile(), report);
+        System.out.println(objectMapper.writeValueAsString(report));
+
+        stats.forEach((name, endpointStats) ->
+                assertEquals(0, endpointStats.errors(), "Failed requests to " + name));
+    }
+
+    private void runScenario(int userIndex) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        send("browse products", HttpRequest.newBuilder(uri("/products/all?page=" + random.nextInt(5) + "&size=20"))
+                .GET());
+
+        JsonNode login = send("login", HttpRequest.newBuilder(uri("/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(
+                        Map.of("email", email(userIndex), "password", PASSWORD)))));
+        if (login == null)
+            return;
+        String token = login.path("data").path("token").asText();
+        long userId = login.path("data").path("id").asLong();
+
+        Long productId = productIds.get(random.nextInt(productIds.size()));
+        send("add to cart", HttpRequest.newBuilder(uri("/cartItems/item/add?productId=" + productId + "&quantity=1"))
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.noBody()));
+
+        send("place order", HttpRequest.newBuilder(uri("/orders/order?userId=" + userId))
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.noBody()));
+    }
+
+    // время ответа учитывается по имени запроса; null - если запрос не удался
+    private JsonNode send(String name, HttpRequest.Builder request) throws Exception {
+        LatencyStats endpointStats = stats.computeIfAbsent(name, key -> new LatencyStats());
+        long start = System.nanoTime();
+        HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        endpointStats.record(System.nanoTime() - start, response.statusCode() / 100 == 2);
+        return response.statusCode() / 100 == 2 ? objectMapper.readTree(response.body()) : null;
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + "/api/v1" + path);
+    }
+
+    private static String email(int userIndex) {
+        return "perf-user" + userIndex + "@email.com";
+    }
+}
@@ -0,0 +1,65 @@
+package com.dailycodework.dreamshops.repository;
+
+import com.dailycodework.dreamshops.model.Image;
+import com.dailycodework.dreamshops.model.ImageBlob;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import javax.sql.rowset.serial.SerialBlob;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class ImageBlobRepositoryTest {
+
+    @Autowired
+    private ImageBlobRepository imageBlobRepository;
+    @Autowired
+    private ImageRepository imageRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long legacyImageId;
+    private Long storedImageId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        legacyImageId = imageRepository.save(new Image()).getId();
+        Image storedImage = new Image();
+        storedImage.setContentHash("a".repeat(64));
+        storedImageId = imageRepository.save(storedImage).getId();
+        entityManager.flush();
+
+        entityManager.createQuery("update ImageBlob b set b.image = :content where b.id = :id")
+                .setParameter("content", new SerialBlob(new byte[]{1, 2, 3}))
+                .setParameter("id", legacyImageId)
+                .executeUpdate();
+        entityManager.clear();
+    }
+
+    @Test
+    public void findIdsWithContent_ReturnsOnlyImagesWithLegacyContent() throws Exception {
+        // Act
+        List<Long> ids = imageBlobRepository.findIdsWithContent();
+
+        // Assert
+        assertEquals(List.of(legacyImageId), ids);
+        assertEquals(3, imageBlobRepository.findById(legacyImageId).orElseThrow().getImage().length());
+        assertNull(imageBlobRepository.findById(storedImageId).orElseThrow().getImage());
+    }
+
+    @Test
+    public void clearContent_KeepsImageRow() {
+        // Act
+        imageBlobRepository.clearContent(legacyImageId);
+        entityManager.clear();
+
+        // Assert
+        assertTrue(imageBlobRepository.findIdsWithContent().isEmpty());
+        assertTrue(imageRepository.existsById(legacyImageId));
+    }
+}
@@ -0,0 +1,183 @@
+package com.dailycodework.dreamshops.repository;
+
+import com.dailycodework.dreamshops.model.Category;
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.request.ProductFilterRequest;
+import com.dailycodework.dreamshops.service.product.ProductCursor;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class ProductRepositoryTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> productIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Category category = new Category("Some category");
+        entityManager.persist(category);
+
+        for (int i = 0; i < 7; i++) {
+            Product product = new Product("Product " + i, i % 2 == 0 ? "Even" : "Odd",
+                    new BigDecimal("10.00"), 10, "Some description", category);
+            entityManager.persist(product);
+            productIds.add(product.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    public void findAllBy_ReturnsSliceWithoutTotalCount() {
+        // Act
+        Slice<Product> firstPage = productRepository.findAllBy(PageRequest.of(0, 3, Sort.by("id")));
+        Slice<Product> lastPage = productRepository.findAllBy(PageRequest.of(2, 3, Sort.by("id")));
+
+        // Assert
+        assertEquals(productIds.subList(0, 3), firstPage.getContent().stream().map(Product::getId).toList());
+        assertTrue(firstPage.hasNext());
+        assertEquals(1, lastPage.getNumberOfElements());
+        assertFalse(lastPage.hasNext());
+    }
+
+    @Test
+    public void findAllByOrderByIdAsc_ScrollsThroughAllProductsWithCursor() {
+        // Arrange
+        List<Long> scrolledIds = new ArrayList<>();
+        String cursor = "";
+
+        // Act
+        Window<Product> window;
+        do {
+            window = productRepository.findAllByOrderByIdAsc(ProductCursor.decode(cursor), Limit.of(3));
+            window.forEach(product -> scrolledIds.add(product.getId()));
+            cursor = ProductCursor.encode(scrolledIds.get(scrolledIds.size() - 1));
+        } while (window.hasNext());
+
+        // Assert
+        assertEquals(productIds, scrolledIds);
+    }
+
+    @Test
+    public void findByBrandOrderByIdAsc_StartsAfterLastSeenId() {
+        // Arrange
+        Long lastSeenId = productIds.get(2);
+
+        // Act
+        Window<Product> window = productRepository.findByBrandOrderByIdAsc("Even",
+                ProductCursor.decode(ProductCursor.encode(lastSeenId)), Limit.of(10));
+
+        // Assert
+        assertEquals(List.of(productIds.get(4), productIds.get(6)),
+                window.getContent().stream().map(Product::getId).toList());
+        assertFalse(window.hasNext());
+    }
+
+    @Test
+    public void decodeCursor_WhenCursorIsInvalid() {
+        // Act and Assert
+        assertThrows(IllegalArgumentException.class, () -> ProductCursor.decode("not a cursor"));
+        assertEquals(ScrollPosition.keyset(), ProductCursor.decode(null));
+    }
+
+    @Test
+    public void findSliceBy_CombinesAllFilterConditions() {
+        // Arrange
+        Category phones = new Category("Phones");
+        entityManager.persist(phones);
+        Product cheap = new Product("Galaxy A15", "Samsung", new BigDecimal("15000"), 5, "Some description", phones);
+        Product soldOut = new Product("Galaxy A25", "Samsung", new BigDecimal("20000"), 0, "Some description", phones);
+        Product expensive = new Product("Galaxy S24", "Samsung", new BigDecimal("90000"), 5, "Some description", phones);
+        Product otherBrand = new Product("Galaxy A15", "Other", new BigDecimal("15000"), 5, "Some description", phones);
+        List.of(cheap, soldOut, expensive, otherBrand).forEach(entityManager::persist);
+        entityManager.flush();
+
+        ProductFilterRequest filter = new ProductFilterRequest();
+        filter.setCategory("Phones");
+        filter.setBrand("Samsung");
+        filter.setName("Galaxy");
+        filter.setMaxPrice(new BigDecimal("50000"));
+        filter.setInStock(true);
+
+        // Act
+        Slice<Product> result = productRepository.findSliceBy(ProductSpecifications.matching(filter),
+                PageRequest.of(0, 10, Sort.by("id")));
+
+        // Assert
+        assertEquals(List.of(cheap.getId()), result.getContent().stream().map(Product::getId).toList());
+        assertFalse(result.hasNext());
+    }
+
+    @Test
+    public void findSliceBy_WithoutConditions_PagesInRequestedOrder() {
+        // Arrange
+        Product product = productRepository.findById(productIds.get(3)).orElseThrow();
+        product.setPrice(new BigDecimal("5.00"));
+        entityManager.flush();
+
+        // Act
+        Slice<Product> firstPage = productRepository.findSliceBy(ProductSpecifications.matching(new ProductFilterRequest()),
+                PageRequest.of(0, 3, Sort.by("price").and(Sort.by("id"))));
+        Slice<Product> lastPage = productRepository.findSliceBy(ProductSpecifications.matching(new ProductFilterRequest()),
+                PageRequest.of(2, 3, Sort.by("price").and(Sort.by("id"))));
+
+        // Assert
+        assertEquals(List.of(productIds.get(3), productIds.get(0), productIds.get(1)),
+                firstPage.getContent().stream().map(Product::getId).toList());
+        assertTrue(firstPage.hasNext());
+        assertEquals(List.of(productIds.get(6)), lastPage.getContent().stream().map(Product::getId).toList());
+        assertFalse(lastPage.hasNext());
+    }
+
+    @Test
+    public void nameStartsWith_TreatsLikeWildcardsAsText() {
+        // Arrange
+        entityManager.persist(new Product("100% cotton", "Some brand", new BigDecimal("10.00"), 1, "Some description", null));
+        entityManager.flush();
+
+        // Act
+        Slice<Product> percent = productRepository.findSliceBy(ProductSpecifications.nameStartsWith("100%"),
+                PageRequest.of(0, 10));
+        Slice<Product> underscore = productRepository.findSliceBy(ProductSpecifications.nameStartsWith("Product_"),
+                PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(1, percent.getNumberOfElements());
+        assertTrue(underscore.isEmpty());
+    }
+
+    @Test
+    public void productTable_HasIndexesForCatalogQueries() {
+        // Act
+        List<String> indexes = jdbcTemplate.queryForList(
+                "select index_name from information_schema.indexes where table_name in ('PRODUCT', 'CATEGORY')",
+                String.class);
+
+        // Assert
+        assertTrue(indexes.containsAll(List.of("IDX_PRODUCT_BRAND_NAME", "IDX_PRODUCT_NAME",
+                "IDX_PRODUCT_CATEGORY_BRAND", "IDX_PRODUCT_PRICE", "IDX_CATEGORY_NAME")), indexes.toString());
+    }
+}
@@ -0,0 +1,121 @@
+package com.dailycodework.dreamshops.repository;
+
+import com.dailycodework.dreamshops.model.Category;
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.service.catalog.CatalogVersion;
+import com.dailycodework.dreamshops.service.category.CategoryServiceImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// вызовы идут без транзакции теста: каждый вызов репозитория читает из кэша второго уровня после фиксации предыдущего
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({CategoryServiceImpl.class, CatalogVersion.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryServiceImpl categoryService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        category = categoryRepository.save(new Category("Some category"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    public void findByName_RepeatedQueryIsServedFromCache() {
+        // Arrange
+        categoryRepository.findByName("Some category");
+        statistics.clear();
+
+        // Act
+        Category result = categoryRepository.findByName("Some category");
+
+        // Assert
+        assertEquals(category.getId(), result.getId());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void updateCategory_InvalidatesCachedQueries() {
+        // Arrange
+        categoryRepository.findByName("Some category");
+
+        // Act
+        categoryService.updateCategory(new Category("Renamed category"), category.getId());
+
+        // Assert
+        assertNull(categoryRepository.findByName("Some category"));
+        assertEquals(category.getId(), categoryRepository.findByName("Renamed category").getId());
+        assertEquals("Renamed category", categoryRepository.findAll().get(0).getName());
+    }
+
+    @Test
+    public void findById_ProductIsServedFromCache() {
+        // Arrange
+        Long productId = saveProduct(10).getId();
+        productRepository.findById(productId);
+        statistics.clear();
+
+        // Act
+        Product result = productRepository.findById(productId).orElseThrow();
+
+        // Assert
+        assertEquals(10, result.getInventory());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("product").getHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void decrementInventory_EvictsProductFromCache() {
+        // Arrange
+        Long productId = saveProduct(10).getId();
+        productRepository.findById(productId);
+
+        // Act
+        productRepository.decrementInventory(Map.of(productId, 3));
+
+        // Assert
+        Product result = productRepository.findById(productId).orElseThrow();
+        assertEquals(7, result.getInventory());
+        assertEquals(1, result.getVersion());
+    }
+
+    private Product saveProduct(int inventory) {
+        return productRepository.save(new Product("Some product", "Some brand", new BigDecimal("10.00"),
+                inventory, "Some description", category));
+    }
+}
@@ -0,0 +1,105 @@
+package com.dailycodework.dreamshops.security.jwt;
+
+import com.dailycodework.dreamshops.security.user.ShopUserDetails;
+import com.dailycodework.dreamshops.security.user.ShopUserDetailsCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AuthTokenFilterTest {
+    private static final String SECRET = "36763979244226452948404D635166546A576D5A7134743777217A25432A462D";
+
+    @Mock
+    private ShopUserDetailsCache userDetailsCache;
+
+    private final JwtUtils jwtUtils = new JwtUtils(SECRET, 60000);
+    private final AuthTokenFilter authTokenFilter = new AuthTokenFilter();
+    private final ShopUserDetails userDetails = new ShopUserDetails(1L, "user@email.com", "password",
+            List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        SecurityContextHolder.clearContext();
+        ReflectionTestUtils.setField(authTokenFilter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(authTokenFilter, "userDetailsCache", userDetailsCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void doFilter_WhenPrincipalComesFromClaims() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(authTokenFilter, "principalSource", "claims");
+        MockHttpServletRequest request = requestWithToken();
+
+        // Act
+        authTokenFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Assert
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        ShopUserDetails principal = (ShopUserDetails) authentication.getPrincipal();
+        assertEquals(1L, principal.getId());
+        assertEquals("user@email.com", principal.getUsername());
+        assertTrue(authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        verifyNoInteractions(userDetailsCache);
+    }
+
+    @Test
+    public void doFilter_WhenPrincipalComesFromDatabase() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(authTokenFilter, "principalSource", "database");
+        MockHttpServletRequest request = requestWithToken();
+
+        when(userDetailsCache.loadUserByUsername("user@email.com"))
+                .thenReturn(userDetails);
+
+        // Act
+        authTokenFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Assert
+        assertSame(userDetails, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        verify(userDetailsCache).loadUserByUsername("user@email.com");
+    }
+
+    @Test
+    public void doFilter_WhenTokenIsInvalid() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer invalid.token.value");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        authTokenFilter.doFilter(request, response, new MockFilterChain());
+
+        // Assert
+        assertEquals(401, response.getStatus());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private MockHttpServletRequest requestWithToken() {
+        String token = jwtUtils.generateTokenForUser(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
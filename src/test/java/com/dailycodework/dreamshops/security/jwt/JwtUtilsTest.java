@@ -0,0 +1,88 @@
+package com.dailycodework.dreamshops.security.jwt;
+
+import com.dailycodework.dreamshops.security.user.ShopUserDetails;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilsTest {
+    private static final String SECRET = "36763979244226452948404D635166546A576D5A7134743777217A25432A462D";
+
+    private JwtUtils jwtUtils;
+    private ShopUserDetails userDetails;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = new JwtUtils(SECRET, 60000);
+        userDetails = new ShopUserDetails(1L, "user@email.com", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    @Test
+    public void parseToken_ReturnsClaimsOfGeneratedToken() {
+        // Arrange
+        String token = generateToken(jwtUtils);
+
+        // Act
+        Claims claims = jwtUtils.parseToken(token);
+
+        // Assert
+        assertEquals("user@email.com", claims.getSubject());
+        assertEquals(1, claims.get("id", Integer.class));
+        assertTrue(jwtUtils.validateToken(claims, userDetails));
+    }
+
+    @Test
+    public void parseToken_WhenTokenIsSignedWithAnotherKey() {
+        // Arrange
+        String token = generateToken(new JwtUtils(JwtKeyGenerator.generateKey(), 60000));
+
+        // Act and Assert
+        assertThrows(JwtException.class, () -> jwtUtils.parseToken(token));
+    }
+
+    @Test
+    public void parseToken_WhenTokenIsExpired() {
+        // Arrange
+        String token = generateToken(new JwtUtils(SECRET, -1000));
+
+        // Act and Assert
+        assertThrows(JwtException.class, () -> jwtUtils.parseToken(token));
+    }
+
+    @Test
+    public void getUserDetailsFromClaims_RestoresIdAndRoles() {
+        // Arrange
+        Claims claims = jwtUtils.parseToken(generateToken(jwtUtils));
+
+        // Act
+        ShopUserDetails result = jwtUtils.getUserDetailsFromClaims(claims);
+
+        // Assert
+        assertEquals(1L, result.getId());
+        assertEquals("user@email.com", result.getUsername());
+        assertEquals(List.of("ROLE_USER"), result.getAuthorities().stream().map(Object::toString).toList());
+    }
+
+    @Test
+    public void validateToken_WhenUserDoesNotMatch() {
+        // Arrange
+        Claims claims = jwtUtils.parseToken(generateToken(jwtUtils));
+        ShopUserDetails otherUser = new ShopUserDetails(2L, "other@email.com", "password", List.of());
+
+        // Act and Assert
+        assertFalse(jwtUtils.validateToken(claims, otherUser));
+    }
+
+    private String generateToken(JwtUtils jwtUtils) {
+        return jwtUtils.generateTokenForUser(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+    }
+}
@@ -0,0 +1,79 @@
+package com.dailycodework.dreamshops.security.user;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ShopUserDetailsCacheTest {
+    private static final String EMAIL = "user@email.com";
+
+    @Mock
+    private ShopUserDetailsService userDetailsService;
+
+    private final UserDetails userDetails = new ShopUserDetails(1L, EMAIL, "password", List.of());
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void loadUserByUsername_WhenCacheIsEnabled() {
+        // Arrange
+        ShopUserDetailsCache cache = new ShopUserDetailsCache(userDetailsService, Duration.ofMinutes(1), 100);
+
+        when(userDetailsService.loadUserByUsername(EMAIL))
+                .thenReturn(userDetails);
+
+        // Act
+        UserDetails first = cache.loadUserByUsername(EMAIL);
+        UserDetails second = cache.loadUserByUsername(EMAIL);
+
+        // Assert
+        assertSame(userDetails, first);
+        assertSame(userDetails, second);
+        verify(userDetailsService, times(1)).loadUserByUsername(EMAIL);
+    }
+
+    @Test
+    public void loadUserByUsername_WhenCacheIsDisabled() {
+        // Arrange
+        ShopUserDetailsCache cache = new ShopUserDetailsCache(userDetailsService, Duration.ZERO, 100);
+
+        when(userDetailsService.loadUserByUsername(EMAIL))
+                .thenReturn(userDetails);
+
+        // Act
+        cache.loadUserByUsername(EMAIL);
+        cache.loadUserByUsername(EMAIL);
+
+        // Assert
+        verify(userDetailsService, times(2)).loadUserByUsername(EMAIL);
+    }
+
+    @Test
+    public void evict_ReloadsUserOnNextRequest() {
+        // Arrange
+        ShopUserDetailsCache cache = new ShopUserDetailsCache(userDetailsService, Duration.ofMinutes(1), 100);
+
+        when(userDetailsService.loadUserByUsername(EMAIL))
+                .thenReturn(userDetails)
+                .thenThrow(new UsernameNotFoundException("User not found!"));
+
+        // Act
+        cache.loadUserByUsername(EMAIL);
+        cache.evict(EMAIL);
+
+        // Assert
+        assertThrows(UsernameNotFoundException.class, () -> cache.loadUserByUsername(EMAIL));
+    }
+}
@@ -0,0 +1,174 @@
+package com.dailycodework.dreamshops.service.cart;
+
+import com.dailycodework.dreamshops.config.RetryConfig;
+import com.dailycodework.dreamshops.mapper.CartMapper;
+import com.dailycodework.dreamshops.mapper.ImageMapper;
+import com.dailycodework.dreamshops.mapper.ProductMapper;
+import com.dailycodework.dreamshops.model.Cart;
+import com.dailycodework.dreamshops.model.CartItem;
+import com.dailycodework.dreamshops.model.Category;
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.model.User;
+import com.dailycodework.dreamshops.repository.CartRepository;
+import com.dailycodework.dreamshops.repository.CategoryRepository;
+import com.dailycodework.dreamshops.repository.ProductRepository;
+import com.dailycodework.dreamshops.repository.UserRepository;
+import com.dailycodework.dreamshops.service.product.ProductServiceImpl;
+import com.dailycodework.dreamshops.service.catalog.CatalogVersion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// все потоки меняют одну корзину; без @Version и повторов часть добавлений терялась бы
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true",
+        "retry.concurrent-update.max-attempts=100",
+        "retry.concurrent-update.delay=1",
+        "retry.concurrent-update.max-delay=50"
+})
+@Import({CartItemServiceImpl.class, CartServiceImpl.class, ProductServiceImpl.class, CartMapper.class,
+        ProductMapper.class, ImageMapper.class, RetryConfig.class,
+        CatalogVersion.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartItemServiceImplConcurrencyTest {
+    private static final int ADDS = 40;
+    private static final int THREADS = 8;
+
+    @Autowired
+    private CartItemServiceImpl cartItemService;
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Category category;
+    private Long cartId;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(new Category("Some category"));
+        User user = new User();
+        user.setEmail("user@email.com");
+        user = userRepository.save(user);
+
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cartId = cartRepository.save(cart).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartRepository.deleteAll();
+        userRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    public void addItemToCart_ConcurrentAddsOfSameProductAreNotLost() throws Exception {
+        // Arrange
+        Product product = createProduct("Hot product");
+
+        // Act
+        runConcurrently(ADDS, i -> cartItemService.addItemToCart(cartId, product.getId(), 1));
+
+        // Assert
+        Cart cart = cartRepository.findWithItemsById(cartId).orElseThrow();
+        assertEquals(Map.of(product.getId(), ADDS), quantities(cart));
+        assertEquals(0, new BigDecimal("10.00").multiply(BigDecimal.valueOf(ADDS)).compareTo(cart.getTotalAmount()));
+    }
+
+    @Test
+    public void addItemToCart_ConcurrentAddsOfDifferentProductsKeepTotalConsistent() throws Exception {
+        // Arrange
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 4; i++)
+            products.add(createProduct("Product " + i));
+
+        // Act
+        runConcurrently(ADDS, i -> cartItemService.addItemToCart(cartId, products.get(i % products.size()).getId(), 1));
+
+        // Assert
+        Cart cart = cartRepository.findWithItemsById(cartId).orElseThrow();
+        assertEquals(ADDS, quantities(cart).values().stream().mapToInt(Integer::intValue).sum());
+        assertEquals(products.size(), cart.getItems().size());
+        assertEquals(0, new BigDecimal("10.00").multiply(BigDecimal.valueOf(ADDS)).compareTo(cart.getTotalAmount()));
+    }
+
+    @Test
+    public void save_StaleProductIsRejected() {
+        // Arrange
+        Product product = createProduct("Some product");
+        Product staleCopy = productRepository.findById(product.getId()).orElseThrow();
+        Product freshCopy = productRepository.findById(product.getId()).orElseThrow();
+        freshCopy.setPrice(new BigDecimal("12.00"));
+        productRepository.save(freshCopy);
+
+        // Act
+        staleCopy.setDescription("Other description");
+
+        // Assert
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> productRepository.save(staleCopy));
+        assertEquals(0, new BigDecimal("12.00").compareTo(
+                productRepository.findById(product.getId()).orElseThrow().getPrice()));
+    }
+
+    private void runConcurrently(int tasks, TaskBody body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < tasks; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    body.run(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures)
+                future.get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Product createProduct(String name) {
+        return productRepository.save(new Product(name, "Some brand",
+                new BigDecimal("10.00"), 100, "Some description", category));
+    }
+
+    private static Map<Long, Integer> quantities(Cart cart) {
+        return cart.getItems()
+                .stream()
+                .collect(Collectors.toMap(item -> item.getProduct().getId(), CartItem::getQuantity));
+    }
+
+    private interface TaskBody {
+        void run(int index);
+    }
+}
@@ -0,0 +1,148 @@
+package com.dailycodework.dreamshops.service.cart;
+
+import com.dailycodework.dreamshops.mapper.CartMapper;
+import com.dailycodework.dreamshops.mapper.ImageMapper;
+import com.dailycodework.dreamshops.mapper.ProductMapper;
+import com.dailycodework.dreamshops.model.Cart;
+import com.dailycodework.dreamshops.model.Category;
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.model.User;
+import com.dailycodework.dreamshops.repository.CartRepository;
+import com.dailycodework.dreamshops.repository.CategoryRepository;
+import com.dailycodework.dreamshops.repository.ProductRepository;
+import com.dailycodework.dreamshops.repository.UserRepository;
+import com.dailycodework.dreamshops.request.CartItemRequest;
+import com.dailycodework.dreamshops.service.product.ProductServiceImpl;
+import com.dailycodework.dreamshops.service.catalog.CatalogVersion;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// вызовы идут без транзакции теста, как из контроллера
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true"
+})
+@Import({CartItemServiceImpl.class, CartServiceImpl.class, ProductServiceImpl.class,
+        CartMapper.class, ProductMapper.class, ImageMapper.class,
+        CatalogVersion.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartItemServiceImplStatementCountTest {
+
+    @Autowired
+    private CartItemServiceImpl cartItemService;
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        category = categoryRepository.save(new Category("Some category"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartRepository.deleteAll();
+        userRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    public void addItemsToCart_StatementCountDoesNotDependOnItemCount() {
+        // Arrange
+        // первый вызов выделяет блок id и заполняет кэш категорий
+        countStatementsForAddItems(1);
+        long statementsForFewItems = countStatementsForAddItems(3);
+        long statementsForManyItems = countStatementsForAddItems(40);
+
+        // Assert
+        assertEquals(statementsForFewItems, statementsForManyItems);
+    }
+
+    @Test
+    public void addItemsToCart_MergesItemsOfTheSameProduct() {
+        // Arrange
+        Long cartId = createCart(0);
+        List<Product> products = createProducts(2);
+        List<CartItemRequest> items = List.of(
+                item(products.get(0).getId(), 1),
+                item(products.get(1).getId(), 2),
+                item(products.get(0).getId(), 3));
+
+        // Act
+        Cart result = cartItemService.addItemsToCart(cartId, items);
+
+        // Assert
+        assertEquals(2, result.getItems().size());
+        assertEquals(4, result.findItem(products.get(0).getId()).orElseThrow().getQuantity());
+        assertEquals(0, new BigDecimal("60.00").compareTo(result.getTotalAmount()));
+        Cart saved = cartRepository.findById(cartId).orElseThrow();
+        assertEquals(0, new BigDecimal("60.00").compareTo(saved.getTotalAmount()));
+    }
+
+    private long countStatementsForAddItems(int itemCount) {
+        Long cartId = createCart(itemCount);
+        List<CartItemRequest> items = createProducts(itemCount).stream()
+                .map(product -> item(product.getId(), 2))
+                .toList();
+
+        statistics.clear();
+        Cart result = cartItemService.addItemsToCart(cartId, items);
+        long statementCount = statistics.getPrepareStatementCount();
+
+        assertEquals(itemCount, result.getItems().size());
+        return statementCount;
+    }
+
+    private Long createCart(int index) {
+        User user = new User();
+        user.setEmail("user" + index + "@email.com");
+        user = userRepository.save(user);
+
+        Cart cart = new Cart();
+        cart.setUser(user);
+        return cartRepository.save(cart).getId();
+    }
+
+    private List<Product> createProducts(int count) {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+            products.add(new Product("Product " + i, "Some brand", new BigDecimal("10.00"),
+                    100, "Some description", category));
+        return productRepository.saveAll(products);
+    }
+
+    private static CartItemRequest item(Long productId, int quantity) {
+        CartItemRequest item = new CartItemRequest();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
@@ -192,4 +192,74 @@ class CartItemServiceImplTest {
         assertThrows(NullPointerException.class,
                 () -> cartItemService.updateItemQuantity(cartId, productId, quantity));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void removeItemFromCart_WhenCartHasManyItems() {
+        // Arrange
+        Long cartId = 1L;
+        Cart cart = cartWithItems(cartId, 300);
+
+        when(cartService.getCart(cartId))
+                .thenReturn(cart);
+
+        // Act
+        cartItemService.removeItemFromCart(cartId, 150L);
+
+        // Assert
+        assertEquals(299, cart.getItems().size());
+        assertTrue(cart.findItem(150L).isEmpty());
+        // 300 позиций по 1.00 * 1 без удаленной
+        assertEquals(0, new BigDecimal("299.00").compareTo(cart.getTotalAmount()));
+        verify(cartRepository).save(cart);
+    }
+
+    @Test
+    public void updateItemQuantity_WhenCartHasManyItems() {
+        // Arrange
+        Long cartId = 1L;
+        Cart cart = cartWithItems(cartId, 300);
+
+        when(cartService.getCart(cartId))
+                .thenReturn(cart);
+
+        // Act
+        cartItemService.updateItemQuantity(cartId, 42L, 5);
+
+        // Assert
+        assertEquals(5, cart.findItem(42L).orElseThrow().getQuantity());
+        assertEquals(0, new BigDecimal("304.00").compareTo(cart.getTotalAmount()));
+    }
+
+    @Test
+    public void removeItemFromCart_WhenProductIsNotInCart() {
+        // Arrange
+        Long cartId = 1L;
+        Cart cart = cartWithItems(cartId, 3);
+
+        when(cartService.getCart(cartId))
+                .thenReturn(cart);
+
+        // Act and Assert
+        assertThrows(ResourceNotFoundException.class,
+                () -> cartItemService.removeItemFromCart(cartId, 99L));
+        verify(cartRepository, never()).save(any(Cart.class));
+    }
+
+    private Cart cartWithItems(Long cartId, int count) {
+        Cart cart = new Cart();
+        cart.setId(cartId);
+        for (long productId = 1; productId <= count; productId++) {
+            Product product = new Product();
+            product.setId(productId);
+            product.setPrice(new BigDecimal("1.00"));
+
+            CartItem cartItem = new CartItem();
+            cartItem.setProduct(product);
+            cartItem.setQuantity(1);
+            cartItem.setUnitPrice(product.getPrice());
+            cartItem.setTotalPrice();
+            cart.addItem(cartItem);
+        }
+        return cart;
+    }
+}
@@ -0,0 +1,128 @@
+package com.dailycodework.dreamshops.service.cart;
+
+import com.dailycodework.dreamshops.mapper.CartMapper;
+import com.dailycodework.dreamshops.mapper.ImageMapper;
+import com.dailycodework.dreamshops.mapper.ProductMapper;
+import com.dailycodework.dreamshops.model.Cart;
+import com.dailycodework.dreamshops.model.CartItem;
+import com.dailycodework.dreamshops.model.Category;
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.model.User;
+import com.dailycodework.dreamshops.repository.CartRepository;
+import com.dailycodework.dreamshops.repository.CategoryRepository;
+import com.dailycodework.dreamshops.repository.ProductRepository;
+import com.dailycodework.dreamshops.repository.UserRepository;
+import com.dailycodework.dreamshops.service.product.ProductServiceImpl;
+import com.dailycodework.dreamshops.service.catalog.CatalogVersion;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// вызовы идут без транзакции теста, как из контроллера
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true"
+})
+@Import({CartServiceImpl.class, ProductServiceImpl.class,
+        CartMapper.class, ProductMapper.class, ImageMapper.class,
+        CatalogVersion.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartServiceImplStatementCountTest {
+
+    @Autowired
+    private CartServiceImpl cartService;
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long cartId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Category category = categoryRepository.save(new Category("Some category"));
+        Product product = productRepository.save(new Product("Some product", "Some brand",
+                new BigDecimal("10.00"), 10, "Some description", category));
+        User user = new User();
+        user.setEmail("user@email.com");
+        user = userRepository.save(user);
+
+        CartItem item = new CartItem();
+        item.setProduct(product);
+        item.setQuantity(2);
+        item.setUnitPrice(product.getPrice());
+        item.setTotalPrice();
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cart.addItem(item);
+        cartId = cartRepository.save(cart).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartRepository.deleteAll();
+        userRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    public void getCart_IssuesOnlyTheSelect() {
+        // Arrange
+        statistics.clear();
+        cartRepository.findById(cartId).orElseThrow();
+        long selectOnly = statistics.getPrepareStatementCount();
+
+        // прежний getCart: findById, затем save того же объекта (merge повторно читает корзину)
+        statistics.clear();
+        Cart cart = cartRepository.findById(cartId).orElseThrow();
+        cart.setTotalAmount(cart.getTotalAmount());
+        cartRepository.save(cart);
+        long readAndSave = statistics.getPrepareStatementCount();
+
+        // Act
+        statistics.clear();
+        Cart result = cartService.getCart(cartId);
+        long statementCount = statistics.getPrepareStatementCount();
+
+        // Assert
+        assertEquals(cartId, result.getId());
+        assertEquals(selectOnly, statementCount);
+        assertEquals(0, statistics.getEntityUpdateCount());
+        assertTrue(statementCount < readAndSave,
+                "getCart: " + statementCount + " statements, read and save: " + readAndSave);
+    }
+
+    @Test
+    public void getTotalPrice_DoesNotWriteCart() {
+        // Act
+        statistics.clear();
+        BigDecimal totalPrice = cartService.getTotalPrice(cartId);
+
+        // Assert
+        assertEquals(0, new BigDecimal("20.00").compareTo(totalPrice));
+        assertEquals(0, statistics.getEntityUpdateCount());
+    }
+}
@@ -19,6 +19,7 @@ import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -47,8 +48,6 @@ class CartServiceImplTest {
 
         when(cartRepository.findById(id))
                 .thenReturn(Optional.of(cart));
-        when(cartRepository.save(any(Cart.class)))
-                .thenReturn(cart);
 
         // Act
         Cart result = cartService.getCart(id);
@@ -57,7 +56,7 @@ class CartServiceImplTest {
         assertEquals(cart, result);
 
         verify(cartRepository).findById(id);
-        verify(cartRepository).save(cart);
+        verify(cartRepository, never()).save(any(Cart.class));
     }
 
     @Test
@@ -0,0 +1,265 @@
+package com.dailycodework.dreamshops.service.cart;
+
+import com.dailycodework.dreamshops.model.Cart;
+import com.dailycodework.dreamshops.model.CartItem;
+import com.dailycodework.dreamshops.model.Category;
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.model.User;
+import com.dailycodework.dreamshops.repository.CartRepository;
+import com.dailycodework.dreamshops.repository.CategoryRepository;
+import com.dailycodework.dreamshops.repository.ProductRepository;
+import com.dailycodework.dreamshops.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// хранилище пишет в базу в своих транзакциях, поэтому тест идет без транзакции
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WriteBehindCartStoreTest {
+
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private WriteBehindCartStore cartStore;
+    private Category category;
+    private int userCount;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // пачка из двух корзин и выгрузка сразу после записи
+        cartStore = new WriteBehindCartStore(cartRepository, productRepository, transactionManager, meterRegistry,
+                4, Duration.ofHours(1), Duration.ZERO, 2);
+        category = categoryRepository.save(new Category("Some category"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartStore.shutdown();
+        cartRepository.deleteAll();
+        userRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    public void write_ChangesAreWrittenOnlyOnFlush() {
+        // Arrange
+        Product product = createProduct("10.00");
+        Long cartId = createCart();
+
+        // Act
+        cartStore.write(cartId, cart -> cart.addProduct(product, 2));
+
+        // Assert
+        assertTrue(loadItems(cartId).isEmpty());
+        assertEquals(0, new BigDecimal("20.00").compareTo(cartStore.read(cartId, Cart::getTotalAmount)));
+
+        cartStore.flushAll();
+
+        assertEquals(Map.of(product.getId(), 2), loadItems(cartId));
+        assertEquals(0, new BigDecimal("20.00").compareTo(loadCart(cartId).getTotalAmount()));
+        assertEquals(Duration.ZERO, cartStore.flushLag());
+    }
+
+    @Test
+    public void flushAll_WritesAddedUpdatedAndRemovedItems() {
+        // Arrange
+        Product removed = createProduct("10.00");
+        Product updated = createProduct("10.00");
+        Product added = createProduct("10.00");
+        Long cartId = createCart(removed, updated);
+
+        // Act
+        cartStore.write(cartId, cart -> {
+            cart.removeItem(cart.findItem(removed.getId()).orElseThrow());
+            cart.updateItemQuantity(cart.findItem(updated.getId()).orElseThrow(), 5);
+            return cart.addProduct(added, 1);
+        });
+        cartStore.flushAll();
+
+        // Assert
+        assertEquals(Map.of(updated.getId(), 5, added.getId(), 1), loadItems(cartId));
+        assertEquals(0, new BigDecimal("60.00").compareTo(loadCart(cartId).getTotalAmount()));
+    }
+
+    @Test
+    public void flushAll_WritesCartsInBatches() {
+        // Arrange
+        Product product = createProduct("10.00");
+        Long firstCartId = createCart();
+        Long secondCartId = createCart();
+        Long thirdCartId = createCart();
+
+        // Act
+        cartStore.write(firstCartId, cart -> cart.addProduct(product, 1));
+        cartStore.write(secondCartId, cart -> cart.addProduct(product, 2));
+        cartStore.write(thirdCartId, cart -> cart.addProduct(product, 3));
+        cartStore.flushAll();
+
+        // Assert
+        assertEquals(Map.of(product.getId(), 1), loadItems(firstCartId));
+        assertEquals(Map.of(product.getId(), 2), loadItems(secondCartId));
+        assertEquals(Map.of(product.getId(), 3), loadItems(thirdCartId));
+        assertEquals(2, meterRegistry.get("cart.store.flush").timer().count());
+    }
+
+    @Test
+    public void flushUserCart_WritesCartBeforeItIsReadByUserId() {
+        // Arrange
+        Product product = createProduct("10.00");
+        Long cartId = createCart();
+        Long userId = loadCart(cartId).getUser().getId();
+        cartStore.write(cartId, cart -> cart.addProduct(product, 4));
+
+        // Act
+        cartStore.flushUserCart(userId);
+
+        // Assert
+        Cart cart = cartRepository.findByUserId(userId);
+        assertEquals(0, new BigDecimal("40.00").compareTo(cart.getTotalAmount()));
+        assertEquals(Map.of(product.getId(), 4), loadItems(cartId));
+    }
+
+    @Test
+    public void evictIdle_KeepsCartsWithUnwrittenChanges() {
+        // Arrange
+        Product product = createProduct("10.00");
+        Long changedCartId = createCart();
+        Long readCartId = createCart();
+        cartStore.write(changedCartId, cart -> cart.addProduct(product, 1));
+        cartStore.read(readCartId, Cart::getTotalAmount);
+
+        // Act
+        cartStore.evictIdle();
+
+        // Assert
+        assertEquals(1, cartStore.size());
+        cartStore.flushAll();
+        cartStore.evictIdle();
+        assertEquals(0, cartStore.size());
+        assertEquals(Map.of(product.getId(), 1), loadItems(changedCartId));
+    }
+
+    @Test
+    public void write_WhenMutationFails_KeepsCartUnchanged() {
+        // Arrange
+        Product product = createProduct("10.00");
+        Long cartId = createCart();
+        cartStore.write(cartId, cart -> cart.addProduct(product, 1));
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> cartStore.write(cartId, cart -> {
+            cart.addProduct(product, 5);
+            throw new IllegalStateException("Mutation failed");
+        }));
+
+        // Assert
+        assertEquals(0, new BigDecimal("10.00").compareTo(cartStore.read(cartId, Cart::getTotalAmount)));
+        cartStore.flushAll();
+        assertEquals(Map.of(product.getId(), 1), loadItems(cartId));
+    }
+
+    @Test
+    public void closeUserCartUntilCompletion_RejectsWritesUntilTransactionEnds() {
+        // Arrange
+        Product product = createProduct("10.00");
+        Long cartId = createCart();
+        Long userId = loadCart(cartId).getUser().getId();
+        cartStore.write(cartId, cart -> cart.addProduct(product, 1));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // Act
+        transaction.executeWithoutResult(status -> {
+            cartStore.closeUserCartUntilCompletion(userId);
+
+            // Assert: изменения записаны до чтения корзины, новые изменения отклоняются
+            assertEquals(Map.of(product.getId(), 1), loadItems(cartId));
+            assertThrows(ConcurrencyFailureException.class,
+                    () -> cartStore.write(cartId, cart -> cart.addProduct(product, 1)));
+            status.setRollbackOnly();
+        });
+
+        // Assert: после отката корзина снова открыта
+        cartStore.write(cartId, cart -> cart.addProduct(product, 1));
+        cartStore.flushAll();
+        assertEquals(Map.of(product.getId(), 2), loadItems(cartId));
+    }
+
+    @Test
+    public void hitRatio_CountsCartsServedFromMemory() {
+        // Arrange
+        Long cartId = createCart();
+
+        // Act
+        cartStore.read(cartId, Cart::getTotalAmount);
+        cartStore.read(cartId, Cart::getTotalAmount);
+        cartStore.read(cartId, Cart::getTotalAmount);
+
+        // Assert
+        assertEquals(2.0 / 3, cartStore.hitRatio(), 0.0001);
+        assertEquals(2.0 / 3, meterRegistry.get("cart.store.hit.ratio").gauge().value(), 0.0001);
+        assertEquals(1, meterRegistry.get("cart.store.requests").tag("result", "miss").functionCounter().count());
+    }
+
+    private Product createProduct(String price) {
+        return productRepository.save(new Product("Some product", "Some brand",
+                new BigDecimal(price), 10, "Some description", category));
+    }
+
+    private Long createCart(Product... products) {
+        User user = new User();
+        user.setEmail("user" + (++userCount) + "@email.com");
+        user = userRepository.save(user);
+
+        Cart cart = new Cart();
+        cart.setUser(user);
+        for (Product product : products) {
+            CartItem item = new CartItem();
+            item.setProduct(product);
+            item.setQuantity(1);
+            item.setUnitPrice(product.getPrice());
+            item.setTotalPrice();
+            cart.addItem(item);
+        }
+        return cartRepository.save(cart).getId();
+    }
+
+    private Cart loadCart(Long cartId) {
+        return cartRepository.findWithItemsById(cartId).orElseThrow();
+    }
+
+    private Map<Long, Integer> loadItems(Long cartId) {
+        return loadCart(cartId).getItems()
+                .stream()
+                .collect(Collectors.toMap(item -> item.getProduct().getId(), CartItem::getQuantity));
+    }
+}
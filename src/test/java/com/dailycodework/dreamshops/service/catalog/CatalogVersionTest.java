@@ -0,0 +1,117 @@
+package com.dailycodework.dreamshops.service.catalog;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogVersionTest {
+    private final CatalogVersion catalogVersion = new CatalogVersion(1);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    public void etag_IsStrongAndStableWhileCatalogIsUnchanged() {
+        // Act
+        String etag = catalogVersion.productsEtag();
+
+        // Assert
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+        assertEquals(etag, catalogVersion.productsEtag());
+    }
+
+    @Test
+    public void productsChanged_WithoutTransaction_ChangesEtagImmediately() {
+        // Arrange
+        String etag = catalogVersion.productsEtag();
+
+        // Act
+        catalogVersion.productsChanged();
+
+        // Assert
+        assertNotEquals(etag, catalogVersion.productsEtag());
+    }
+
+    @Test
+    public void productsChanged_InTransaction_ChangesEtagBeforeAndAfterCommit() {
+        // Arrange
+        String etag = catalogVersion.productsEtag();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        catalogVersion.productsChanged();
+
+        // Assert
+        assertEquals(etag, catalogVersion.productsEtag());
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.beforeCommit(false));
+        // ответ, прочитанный до фиксации, получил этот ETag со старыми данными
+        String etagBeforeCommit = catalogVersion.productsEtag();
+        assertNotEquals(etag, etagBeforeCommit);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertNotEquals(etagBeforeCommit, catalogVersion.productsEtag());
+    }
+
+    @Test
+    public void productsChanged_InRolledBackTransaction_KeepsEtag() {
+        // Arrange
+        String etag = catalogVersion.productsEtag();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        catalogVersion.productsChanged();
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Assert
+        assertEquals(etag, catalogVersion.productsEtag());
+    }
+
+    @Test
+    public void productsChanged_KeepsCategoriesEtag() {
+        // Arrange
+        String categoriesEtag = catalogVersion.categoriesEtag();
+
+        // Act
+        catalogVersion.productsChanged();
+
+        // Assert
+        assertEquals(categoriesEtag, catalogVersion.categoriesEtag());
+    }
+
+    @Test
+    public void categoriesChanged_ChangesOnlyCategoriesEtag() {
+        // Arrange
+        String productsEtag = catalogVersion.productsEtag();
+        String categoriesEtag = catalogVersion.categoriesEtag();
+
+        // Act
+        catalogVersion.categoriesChanged();
+
+        // Assert
+        assertEquals(productsEtag, catalogVersion.productsEtag());
+        assertNotEquals(categoriesEtag, catalogVersion.categoriesEtag());
+        assertNotEquals(catalogVersion.productsEtag(), catalogVersion.categoriesEtag());
+    }
+
+    @Test
+    public void etag_DiffersBetweenApplicationStarts() throws InterruptedException {
+        // Arrange
+        String etag = catalogVersion.productsEtag();
+        Thread.sleep(2);
+
+        // Act and Assert
+        assertNotEquals(etag, new CatalogVersion(1).productsEtag());
+    }
+
+    @Test
+    public void constructor_WhenSeveralInstancesAreConfigured_FailsFast() {
+        // Act and Assert
+        assertThrows(IllegalStateException.class, () -> new CatalogVersion(2));
+    }
+}
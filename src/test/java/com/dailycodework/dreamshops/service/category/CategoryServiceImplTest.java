@@ -4,10 +4,14 @@ import com.dailycodework.dreamshops.exceptions.AlreadyExistsException;
 import com.dailycodework.dreamshops.exceptions.ResourceNotFoundException;
 import com.dailycodework.dreamshops.model.Category;
 import com.dailycodework.dreamshops.repository.CategoryRepository;
+import com.dailycodework.dreamshops.repository.ProductRepository;
+import com.dailycodework.dreamshops.service.catalog.CatalogChangedEvent;
+import com.dailycodework.dreamshops.service.catalog.CatalogVersion;
 import org.junit.jupiter.api.*;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
 import java.util.Optional;
@@ -25,6 +29,12 @@ class CategoryServiceImplTest {
     // declare the dependencies
     @Mock
     private CategoryRepository categoryRepository;
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private CatalogVersion catalogVersion;
 
     @BeforeEach
     void setUp() {
@@ -54,6 +64,8 @@ class CategoryServiceImplTest {
 
         verify(categoryRepository, times(1)).existsByName(newCategory.getName());
         verify(categoryRepository, times(1)).save(newCategory);
+        verify(catalogVersion, times(1)).categoriesChanged();
+        verify(catalogVersion, never()).productsChanged();
     }
 
     @Test
@@ -206,6 +218,8 @@ class CategoryServiceImplTest {
                 .thenReturn(new Category(
                         "electronicsss"
                 ));
+        when(productRepository.findIdsByCategoryId(categoryId))
+                .thenReturn(List.of(3L, 4L));
 
         // When
         Category saveCategory = categoryService.updateCategory(category, categoryId);
@@ -215,6 +229,10 @@ class CategoryServiceImplTest {
 
         verify(categoryRepository, times(1)).findById(categoryId);
         verify(categoryRepository, times(1)).save(category);
+        // товары переиндексируются с новым названием категории
+        verify(eventPublisher, times(1)).publishEvent(new CatalogChangedEvent(List.of(3L, 4L)));
+        verify(catalogVersion, times(1)).categoriesChanged();
+        verify(catalogVersion, times(1)).productsChanged();
     }
 
     @Test
@@ -252,6 +270,8 @@ class CategoryServiceImplTest {
         // Mock the calls
         when(categoryRepository.findById(categoryId))
                 .thenReturn(Optional.of(category));
+        when(productRepository.findIdsByCategoryId(categoryId))
+                .thenReturn(List.of(3L, 4L));
 
         // When
         categoryService.deleteCategoryById(categoryId);
@@ -259,6 +279,10 @@ class CategoryServiceImplTest {
         // Then
         verify(categoryRepository, times(1)).findById(categoryId);
         verify(categoryRepository, times(1)).delete(category);
+        // товары удалены вместе с категорией и убираются из индексов
+        verify(eventPublisher, times(1)).publishEvent(new CatalogChangedEvent(List.of(3L, 4L)));
+        verify(catalogVersion, times(1)).categoriesChanged();
+        verify(catalogVersion, times(1)).productsChanged();
     }
 
     @Test
@@ -280,6 +304,8 @@ class CategoryServiceImplTest {
 
         verify(categoryRepository, times(1)).findById(categoryId);
         verify(categoryRepository, never()).delete(any(Category.class));
+        verify(eventPublisher, never()).publishEvent(any());
+        verifyNoInteractions(catalogVersion);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,334 @@
+package com.dailycodework.dreamshops.service.image;
+
+import com.dailycodework.dreamshops.dto.ImageDto;
+import com.dailycodework.dreamshops.mapper.ImageMapper;
+import com.dailycodework.dreamshops.enums.ImageSize;
+import com.dailycodework.dreamshops.model.Image;
+import com.dailycodework.dreamshops.model.ImageBlob;
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.repository.ImageBlobRepository;
+import com.dailycodework.dreamshops.repository.ImageRepository;
+import com.dailycodework.dreamshops.service.catalog.CatalogVersion;
+import com.dailycodework.dreamshops.service.product.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.core.io.Resource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.StreamUtils;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.sql.Blob;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class ImageServiceImplTest {
+    private static final int IMAGE_SIZE = 5 * 1024 * 1024;
+    private static final int CONCURRENT_DOWNLOADS = 200;
+    private static final String CONTENT_HASH = "a".repeat(64);
+    private static final String OLD_CONTENT_HASH = "b".repeat(64);
+
+    @InjectMocks
+    private ImageServiceImpl imageService;
+
+    @Mock
+    private ImageRepository imageRepository;
+    @Mock
+    private ImageBlobRepository imageBlobRepository;
+    @Mock
+    private ProductService productService;
+    @Mock
+    private ImageStorage imageStorage;
+    @Mock
+    private ImageVariantGenerator imageVariantGenerator;
+    @Mock
+    private CatalogVersion catalogVersion;
+    @Spy
+    private ImageMapper imageMapper = new ImageMapper();
+    @Spy
+    private ContentLocks contentLocks = new ContentLocks(4);
+    @Mock
+    private Blob blob;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void saveImages_StoresContentOutsideDatabase() throws Exception {
+        // Arrange
+        Long productId = 1L;
+        Product product = new Product();
+        product.setId(productId);
+        MockMultipartFile file = new MockMultipartFile("files", "image.jpg", "image/jpeg", new byte[]{1, 2, 3});
+
+        when(productService.getProductById(productId))
+                .thenReturn(product);
+        when(imageStorage.store(any(InputStream.class)))
+                .thenReturn(CONTENT_HASH);
+        when(imageStorage.exists(CONTENT_HASH))
+                .thenReturn(true);
+        when(imageRepository.save(any(Image.class)))
+                .thenAnswer(invocation -> {
+                    Image image = invocation.getArgument(0);
+                    image.setId(10L);
+                    return image;
+                });
+
+        // Act
+        List<ImageDto> result = imageService.saveImages(List.of(file), productId);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("/api/v1/images/image/download/10", result.get(0).getDownloadUrl());
+
+        verify(imageRepository, atLeastOnce()).save(argThat(image ->
+                CONTENT_HASH.equals(image.getContentHash())
+                        && image.getFileSize() == 3));
+        verify(imageVariantGenerator).submit(CONTENT_HASH);
+        assertEquals("/api/v1/images/image/download/10?size=thumb", result.get(0).getVariantUrls().get("thumb"));
+    }
+
+    @Test
+    public void saveImages_WhenSameContentWasDeletedConcurrently_StoresItAgain() throws Exception {
+        // Arrange
+        Long productId = 1L;
+        Product product = new Product();
+        product.setId(productId);
+        MockMultipartFile file = new MockMultipartFile("files", "image.jpg", "image/jpeg", new byte[]{1, 2, 3});
+
+        when(productService.getProductById(productId))
+                .thenReturn(product);
+        when(imageStorage.store(any(InputStream.class)))
+                .thenReturn(CONTENT_HASH);
+        // удаление неиспользуемого файла с тем же содержимым успело пройти между сохранением и блокировкой
+        when(imageStorage.exists(CONTENT_HASH))
+                .thenReturn(false);
+        when(imageRepository.save(any(Image.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        imageService.saveImages(List.of(file), productId);
+
+        // Assert
+        verify(imageStorage, times(2)).store(any(InputStream.class));
+    }
+
+    @Test
+    public void updateImage_DeletesOldContentWhenUnused() throws Exception {
+        // Arrange
+        Long imageId = 1L;
+        Image image = new Image();
+        image.setId(imageId);
+        image.setContentHash(OLD_CONTENT_HASH);
+        MockMultipartFile file = new MockMultipartFile("file", "new.png", "image/png", new byte[]{4, 5});
+
+        when(imageRepository.findById(imageId))
+                .thenReturn(Optional.of(image));
+        when(imageStorage.store(any(InputStream.class)))
+                .thenReturn(CONTENT_HASH);
+        when(imageStorage.exists(CONTENT_HASH))
+                .thenReturn(true);
+        when(imageRepository.existsByContentHash(OLD_CONTENT_HASH))
+                .thenReturn(false);
+
+        // Act
+        imageService.updateImage(file, imageId);
+
+        // Assert
+        assertEquals(CONTENT_HASH, image.getContentHash());
+        assertEquals("image/png", image.getFileType());
+        verify(imageRepository).save(image);
+        verify(imageBlobRepository, never()).clearContent(any());
+        verify(imageStorage).delete(OLD_CONTENT_HASH);
+        verify(catalogVersion).productsChanged();
+    }
+
+    @Test
+    public void deleteImageById_KeepsContentSharedWithOtherImages() throws Exception {
+        // Arrange
+        Long imageId = 1L;
+        Image image = new Image();
+        image.setId(imageId);
+        image.setContentHash(CONTENT_HASH);
+
+        when(imageRepository.findById(imageId))
+                .thenReturn(Optional.of(image));
+        when(imageRepository.existsByContentHash(CONTENT_HASH))
+                .thenReturn(true);
+
+        // Act
+        imageService.deleteImageById(imageId);
+
+        // Assert
+        verify(imageRepository).delete(image);
+        verify(imageStorage, never()).delete(any());
+        verify(catalogVersion).productsChanged();
+    }
+
+    @Test
+    public void getImageContent_WhenContentIsInStorage() {
+        // Arrange
+        Image image = new Image();
+        image.setContentHash(CONTENT_HASH);
+        Resource resource = mock(Resource.class);
+
+        when(imageStorage.load(CONTENT_HASH))
+                .thenReturn(resource);
+
+        // Act
+        Resource result = imageService.getImageContent(image);
+
+        // Assert
+        assertSame(resource, result);
+    }
+
+    @Test
+    public void getImageVariant_WhenVariantIsReady() {
+        // Arrange
+        Image image = new Image();
+        image.setContentHash(CONTENT_HASH);
+        Resource variant = mock(Resource.class);
+
+        when(imageStorage.loadVariant(CONTENT_HASH, "thumb"))
+                .thenReturn(variant);
+        when(variant.exists())
+                .thenReturn(true);
+
+        // Act
+        Optional<Resource> result = imageService.getImageVariant(image, ImageSize.THUMB);
+
+        // Assert
+        assertSame(variant, result.orElseThrow());
+        verify(imageVariantGenerator, never()).submit(any());
+    }
+
+    @Test
+    public void getImageVariant_WhenVariantIsMissing() {
+        // Arrange
+        Image image = new Image();
+        image.setContentHash(CONTENT_HASH);
+        Resource variant = mock(Resource.class);
+
+        when(imageStorage.loadVariant(CONTENT_HASH, "medium"))
+                .thenReturn(variant);
+        when(variant.exists())
+                .thenReturn(false);
+
+        // Act
+        Optional<Resource> result = imageService.getImageVariant(image, ImageSize.MEDIUM);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(imageVariantGenerator).submit(CONTENT_HASH);
+    }
+
+    @Test
+    public void getImageContent_StreamsLegacyBlobWithoutCopyingIt() throws Exception {
+        // Arrange
+        Image image = imageWithLegacyBlob();
+
+        // Act
+        Resource resource = imageService.getImageContent(image);
+        long transferred = StreamUtils.copy(resource.getInputStream(), OutputStream.nullOutputStream());
+
+        // Assert
+        assertEquals(IMAGE_SIZE, resource.contentLength());
+        assertEquals(IMAGE_SIZE, transferred);
+        verify(blob, never()).getBytes(anyLong(), anyInt());
+    }
+
+    @Test
+    public void getImageContent_ServiceDoesNotCopyBlobUnderConcurrency() throws Exception {
+        // Arrange
+        Image image = imageWithLegacyBlob();
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_DOWNLOADS);
+
+        // Act
+        List<Future<long[]>> downloads = new ArrayList<>();
+        try {
+            for (int i = 0; i < CONCURRENT_DOWNLOADS; i++) {
+                downloads.add(executor.submit(() -> {
+                    long threadId = Thread.currentThread().threadId();
+                    long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+
+                    Resource resource = imageService.getImageContent(image);
+                    long transferred = StreamUtils.copy(resource.getInputStream(), OutputStream.nullOutputStream());
+
+                    return new long[]{transferred, threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore};
+                }));
+            }
+
+            // Assert
+            for (Future<long[]> download : downloads) {
+                long[] result = download.get();
+                assertEquals(IMAGE_SIZE, result[0]);
+                // Blob - заглушка: проверяется только, что сервис не копирует содержимое, память драйвера не измеряется
+                assertTrue(result[1] < IMAGE_SIZE / 10, "allocated " + result[1] + " bytes per download");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(blob, never()).getBytes(anyLong(), anyInt());
+    }
+
+    private Image imageWithLegacyBlob() throws Exception {
+        Image image = new Image();
+        image.setId(1L);
+        ImageBlob imageBlob = new ImageBlob();
+        imageBlob.setId(1L);
+        imageBlob.setImage(blob);
+        when(imageBlobRepository.findById(1L))
+                .thenReturn(Optional.of(imageBlob));
+
+        when(blob.length())
+                .thenReturn((long) IMAGE_SIZE);
+        when(blob.getBinaryStream())
+                .thenAnswer(invocation -> new GeneratedImageStream(IMAGE_SIZE));
+        return image;
+    }
+
+    // поток изображения заданного размера, не хранящий данные в памяти
+    private static class GeneratedImageStream extends InputStream {
+        private int remaining;
+
+        GeneratedImageStream(int size) {
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() {
+            if (remaining == 0)
+                return -1;
+            remaining--;
+            return 0x7F;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (remaining == 0)
+                return -1;
+            int count = Math.min(length, remaining);
+            remaining -= count;
+            return count;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.dailycodework.dreamshops.service.image;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageVariantGeneratorTest {
+    @TempDir
+    Path root;
+
+    private LocalImageStorage imageStorage;
+    private final ContentLocks contentLocks = new ContentLocks(4);
+    private ImageVariantGenerator imageVariantGenerator;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        imageStorage = new LocalImageStorage(root);
+        imageVariantGenerator = new ImageVariantGenerator(imageStorage, contentLocks, 1, 10, 20_000_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageVariantGenerator.shutdown();
+    }
+
+    @Test
+    public void generate_ResizesKeepingAspectRatioAndFormat() throws Exception {
+        // Arrange
+        String key = imageStorage.store(new ByteArrayInputStream(encode(1600, 1000, "jpg")));
+
+        // Act
+        imageVariantGenerator.generate(key);
+
+        // Assert
+        BufferedImage thumb = read(key, "thumb");
+        assertEquals(200, thumb.getWidth());
+        assertEquals(125, thumb.getHeight());
+        BufferedImage medium = read(key, "medium");
+        assertEquals(800, medium.getWidth());
+        assertEquals(500, medium.getHeight());
+        try (InputStream content = imageStorage.loadVariant(key, "thumb").getInputStream()) {
+            assertEquals("JPEG", ImageIO.getImageReaders(ImageIO.createImageInputStream(content)).next().getFormatName());
+        }
+    }
+
+    @Test
+    public void generate_WhenImageIsAlreadySmall() throws Exception {
+        // Arrange
+        byte[] content = encode(150, 100, "png");
+        String key = imageStorage.store(new ByteArrayInputStream(content));
+
+        // Act
+        imageVariantGenerator.generate(key);
+
+        // Assert
+        assertArrayEquals(content, imageStorage.loadVariant(key, "thumb").getContentAsByteArray());
+        assertArrayEquals(content, imageStorage.loadVariant(key, "medium").getContentAsByteArray());
+    }
+
+    @Test
+    public void generate_WhenImageIsMuchLargerThanVariants_DecodesSubsampled() throws Exception {
+        // Arrange
+        String key = imageStorage.store(new ByteArrayInputStream(encode(4000, 2000, "png")));
+
+        // Act
+        imageVariantGenerator.generate(key);
+
+        // Assert
+        assertEquals(800, read(key, "medium").getWidth());
+        assertEquals(400, read(key, "medium").getHeight());
+        assertEquals(200, read(key, "thumb").getWidth());
+    }
+
+    @Test
+    public void generate_WhenImageDeclaresTooManyPixels_DoesNotDecodeIt() throws Exception {
+        // Arrange
+        imageVariantGenerator.shutdown();
+        imageVariantGenerator = new ImageVariantGenerator(imageStorage, contentLocks, 1, 10, 1_000_000);
+        byte[] content = encode(1600, 1000, "png");
+        String key = imageStorage.store(new ByteArrayInputStream(content));
+
+        // Act
+        imageVariantGenerator.generate(key);
+
+        // Assert
+        assertArrayEquals(content, imageStorage.loadVariant(key, "thumb").getContentAsByteArray());
+        assertArrayEquals(content, imageStorage.loadVariant(key, "medium").getContentAsByteArray());
+    }
+
+    @Test
+    public void generate_WhenFormatIsNotSupported() throws Exception {
+        // Arrange
+        byte[] content = "not an image".getBytes();
+        String key = imageStorage.store(new ByteArrayInputStream(content));
+
+        // Act
+        imageVariantGenerator.generate(key);
+
+        // Assert
+        assertArrayEquals(content, imageStorage.loadVariant(key, "thumb").getContentAsByteArray());
+    }
+
+    @Test
+    public void submit_GeneratesVariantsInBackground() throws Exception {
+        // Arrange
+        String key = imageStorage.store(new ByteArrayInputStream(encode(1000, 1000, "png")));
+
+        // Act
+        imageVariantGenerator.submit(key);
+
+        // Assert
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!imageStorage.loadVariant(key, "medium").exists() && System.currentTimeMillis() < deadline)
+            Thread.sleep(20);
+        assertEquals(200, read(key, "thumb").getWidth());
+        assertEquals(800, read(key, "medium").getWidth());
+    }
+
+    @Test
+    public void generate_WhenContentIsDeletedWhileResizing_DoesNotStoreVariants() throws Exception {
+        // Arrange
+        String key = imageStorage.store(new ByteArrayInputStream(encode(1600, 1000, "jpg")));
+        ReentrantLock lock = (ReentrantLock) contentLocks.forKey(key);
+        lock.lock();
+        Thread generator;
+        try {
+            // Act: копии построены и ждут блокировки, содержимое удаляется под ней
+            generator = Thread.ofPlatform().start(() -> {
+                try {
+                    imageVariantGenerator.generate(key);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (!lock.hasQueuedThread(generator) && System.currentTimeMillis() < deadline)
+                Thread.sleep(10);
+            assertTrue(lock.hasQueuedThread(generator));
+            imageStorage.delete(key);
+        } finally {
+            lock.unlock();
+        }
+        generator.join();
+
+        // Assert
+        assertFalse(imageStorage.loadVariant(key, "thumb").exists());
+        assertFalse(imageStorage.loadVariant(key, "medium").exists());
+    }
+
+    private BufferedImage read(String key, String variant) throws Exception {
+        try (InputStream content = imageStorage.loadVariant(key, variant).getInputStream()) {
+            return ImageIO.read(content);
+        }
+    }
+
+    private static byte[] encode(int width, int height, String format) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,94 @@
+package com.dailycodework.dreamshops.service.image;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalImageStorageTest {
+    @TempDir
+    Path root;
+
+    private LocalImageStorage imageStorage;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        imageStorage = new LocalImageStorage(root);
+    }
+
+    @Test
+    public void store_SavesContentUnderShardedSha256Path() throws Exception {
+        // Arrange
+        byte[] content = "some image content".getBytes(StandardCharsets.UTF_8);
+        String expectedKey = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+
+        // Act
+        String key = imageStorage.store(new ByteArrayInputStream(content));
+
+        // Assert
+        assertEquals(expectedKey, key);
+        Path file = root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+        assertArrayEquals(content, Files.readAllBytes(file));
+
+        Resource resource = imageStorage.load(key);
+        assertEquals(content.length, resource.contentLength());
+        assertArrayEquals(content, resource.getContentAsByteArray());
+    }
+
+    @Test
+    public void store_WhenContentAlreadyExists() throws Exception {
+        // Arrange
+        byte[] content = "same content".getBytes(StandardCharsets.UTF_8);
+
+        // Act
+        String firstKey = imageStorage.store(new ByteArrayInputStream(content));
+        String secondKey = imageStorage.store(new ByteArrayInputStream(content));
+
+        // Assert
+        assertEquals(firstKey, secondKey);
+        try (var tempFiles = Files.list(root.resolve("tmp"))) {
+            assertEquals(0, tempFiles.count());
+        }
+    }
+
+    @Test
+    public void delete_RemovesContent() throws Exception {
+        // Arrange
+        String key = imageStorage.store(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+
+        // Act
+        imageStorage.delete(key);
+
+        // Assert
+        assertFalse(imageStorage.load(key).exists());
+    }
+
+    @Test
+    public void delete_RemovesVariantsTogetherWithContent() throws Exception {
+        // Arrange
+        String key = imageStorage.store(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        imageStorage.storeVariant(key, "thumb", new ByteArrayInputStream(new byte[]{1}));
+
+        // Act
+        imageStorage.delete(key);
+
+        // Assert
+        assertFalse(imageStorage.load(key).exists());
+        assertFalse(imageStorage.loadVariant(key, "thumb").exists());
+    }
+
+    @Test
+    public void load_WhenKeyIsInvalid() {
+        // Act and Assert
+        assertThrows(IllegalArgumentException.class, () -> imageStorage.load("../../etc/passwd"));
+    }
+}
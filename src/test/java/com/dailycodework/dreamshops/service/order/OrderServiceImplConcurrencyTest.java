@@ -0,0 +1,136 @@
+package com.dailycodework.dreamshops.service.order;
+
+import com.dailycodework.dreamshops.mapper.CartMapper;
+import com.dailycodework.dreamshops.mapper.ImageMapper;
+import com.dailycodework.dreamshops.mapper.OrderMapper;
+import com.dailycodework.dreamshops.mapper.ProductMapper;
+import com.dailycodework.dreamshops.exceptions.OutOfStockException;
+import com.dailycodework.dreamshops.model.Cart;
+import com.dailycodework.dreamshops.model.CartItem;
+import com.dailycodework.dreamshops.model.Category;
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.model.User;
+import com.dailycodework.dreamshops.repository.CartRepository;
+import com.dailycodework.dreamshops.repository.CategoryRepository;
+import com.dailycodework.dreamshops.repository.OrderRepository;
+import com.dailycodework.dreamshops.repository.ProductRepository;
+import com.dailycodework.dreamshops.repository.UserRepository;
+import com.dailycodework.dreamshops.service.cart.CartServiceImpl;
+import com.dailycodework.dreamshops.service.product.ProductServiceImpl;
+import com.dailycodework.dreamshops.service.catalog.CatalogVersion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true"
+})
+@Import({OrderServiceImpl.class, CartServiceImpl.class, ProductServiceImpl.class,
+        OrderMapper.class, CartMapper.class, ProductMapper.class, ImageMapper.class,
+        CatalogVersion.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderServiceImplConcurrencyTest {
+    private static final int STOCK = 50;
+    private static final int BUYERS = 120;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private OrderServiceImpl orderService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        cartRepository.deleteAll();
+        userRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    public void placeOrder_HotProductIsNeverOversold() throws Exception {
+        // Arrange
+        Category category = categoryRepository.save(new Category("Some category"));
+        Product hotProduct = productRepository.save(new Product("Hot product", "Some brand",
+                new BigDecimal("10.00"), STOCK, "Some description", category));
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++)
+            userIds.add(createUserWithCart(i, hotProduct));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        // Act
+        List<Future<?>> orders = new ArrayList<>();
+        try {
+            for (Long userId : userIds) {
+                orders.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        orderService.placeOrder(userId);
+                        placed.incrementAndGet();
+                    } catch (OutOfStockException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> order : orders)
+                order.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        assertEquals(STOCK, placed.get());
+        assertEquals(BUYERS - STOCK, rejected.get());
+        assertEquals(0, productRepository.findById(hotProduct.getId()).orElseThrow().getInventory());
+        assertEquals(STOCK, orderRepository.count());
+    }
+
+    private Long createUserWithCart(int index, Product product) {
+        User user = new User();
+        user.setEmail("user" + index + "@email.com");
+        user = userRepository.save(user);
+
+        CartItem item = new CartItem();
+        item.setProduct(product);
+        item.setQuantity(1);
+        item.setUnitPrice(product.getPrice());
+        item.setTotalPrice();
+
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cart.addItem(item);
+        cartRepository.save(cart);
+        return user.getId();
+    }
+}
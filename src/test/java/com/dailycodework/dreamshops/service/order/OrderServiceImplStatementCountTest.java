@@ -0,0 +1,121 @@
+package com.dailycodework.dreamshops.service.order;
+
+import com.dailycodework.dreamshops.mapper.CartMapper;
+import com.dailycodework.dreamshops.mapper.ImageMapper;
+import com.dailycodework.dreamshops.mapper.OrderMapper;
+import com.dailycodework.dreamshops.mapper.ProductMapper;
+import com.dailycodework.dreamshops.model.Cart;
+import com.dailycodework.dreamshops.model.CartItem;
+import com.dailycodework.dreamshops.model.Category;
+import com.dailycodework.dreamshops.model.Order;
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.model.User;
+import com.dailycodework.dreamshops.service.cart.CartServiceImpl;
+import com.dailycodework.dreamshops.service.product.ProductServiceImpl;
+import com.dailycodework.dreamshops.service.catalog.CatalogVersion;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true"
+})
+@Import({OrderServiceImpl.class, CartServiceImpl.class, ProductServiceImpl.class,
+        OrderMapper.class, CartMapper.class, ProductMapper.class, ImageMapper.class,
+        CatalogVersion.class})
+class OrderServiceImplStatementCountTest {
+
+    @Autowired
+    private OrderServiceImpl orderService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        category = new Category("Some category");
+        entityManager.persist(category);
+    }
+
+    @Test
+    public void placeOrder_StatementCountDoesNotDependOnCartSize() {
+        // Arrange
+        long statementsForSmallCart = countStatementsForPlaceOrder(3);
+        long statementsForLargeCart = countStatementsForPlaceOrder(30);
+
+        // Assert
+        assertEquals(statementsForSmallCart, statementsForLargeCart);
+    }
+
+    @Test
+    public void placeOrder_InsertsOrderItemsInBatches() {
+        // Arrange
+        Long userId = createUserWithCart(30);
+
+        // Act
+        statistics.clear();
+        Order order = orderService.placeOrder(userId);
+        entityManager.flush();
+
+        // Assert
+        assertEquals(30, order.getOrderItems().size());
+        assertEquals(30, statistics.getEntityInsertCount() - 1);
+        assertTrue(statistics.getPrepareStatementCount() < 30,
+                "prepared " + statistics.getPrepareStatementCount() + " statements");
+    }
+
+    private long countStatementsForPlaceOrder(int itemCount) {
+        Long userId = createUserWithCart(itemCount);
+
+        statistics.clear();
+        Order order = orderService.placeOrder(userId);
+        entityManager.flush();
+        long statementCount = statistics.getPrepareStatementCount();
+
+        assertEquals(itemCount, order.getOrderItems().size());
+        entityManager.clear();
+        return statementCount;
+    }
+
+    private Long createUserWithCart(int itemCount) {
+        User user = new User();
+        user.setEmail("user" + System.nanoTime() + "@email.com");
+        entityManager.persist(user);
+
+        Cart cart = new Cart();
+        cart.setUser(user);
+        for (int i = 0; i < itemCount; i++) {
+            Product product = new Product("Product " + i, "Some brand", new BigDecimal("10.00"),
+                    100, "Some description", category);
+            entityManager.persist(product);
+
+            CartItem item = new CartItem();
+            item.setProduct(product);
+            item.setQuantity(2);
+            item.setUnitPrice(product.getPrice());
+            item.setTotalPrice();
+            cart.addItem(item);
+        }
+        entityManager.persist(cart);
+        entityManager.flush();
+        entityManager.clear();
+        return user.getId();
+    }
+}
@@ -1,18 +1,21 @@
 package com.dailycodework.dreamshops.service.order;
 
 import com.dailycodework.dreamshops.dto.OrderDto;
+import com.dailycodework.dreamshops.mapper.OrderMapper;
+import com.dailycodework.dreamshops.exceptions.OutOfStockException;
 import com.dailycodework.dreamshops.exceptions.ResourceNotFoundException;
 import com.dailycodework.dreamshops.model.*;
 import com.dailycodework.dreamshops.repository.CartRepository;
 import com.dailycodework.dreamshops.repository.OrderRepository;
 import com.dailycodework.dreamshops.repository.ProductRepository;
 import com.dailycodework.dreamshops.service.cart.CartServiceImpl;
+import com.dailycodework.dreamshops.service.catalog.CatalogVersion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.modelmapper.ModelMapper;
+import org.mockito.Spy;
 
 import java.math.BigDecimal;
 import java.util.*;
@@ -33,7 +36,9 @@ class OrderServiceImplTest {
     @Mock
     private CartServiceImpl cartService;
     @Mock
-    private ModelMapper modelMapper;
+    private CatalogVersion catalogVersion;
+    @Spy
+    private OrderMapper orderMapper = new OrderMapper();
 
     @BeforeEach
     void setUp() {
@@ -88,6 +93,44 @@ class OrderServiceImplTest {
         verify(cartService, times(1)).getCartByUserId(userId);
         verify(cartService, times(1)).clearCart(cart.getId());
         verify(orderRepository, times(1)).save(any(Order.class));
+        // остатки меняют только товары, ETag списка категорий остается прежним
+        verify(catalogVersion, times(1)).productsChanged();
+        verify(catalogVersion, never()).categoriesChanged();
+    }
+
+    @Test
+    void placeOrder_WhenProductIsOutOfStock() {
+        // Подготовка данных
+        Long userId = 1L;
+
+        Product product = new Product();
+        product.setId(5L);
+        product.setInventory(1);
+
+        CartItem cartItem = new CartItem();
+        cartItem.setProduct(product);
+        cartItem.setQuantity(2);
+        cartItem.setUnitPrice(new BigDecimal(10));
+
+        Cart cart = new Cart();
+        cart.setId(1L);
+        cart.addItem(cartItem);
+
+        // Настройка моков
+        when(cartService.getCartByUserId(userId))
+                .thenReturn(cart);
+        when(productRepository.decrementInventory(Map.of(5L, 2)))
+                .thenReturn(List.of(5L));
+
+        // Выполнение метода
+        OutOfStockException exception = assertThrows(OutOfStockException.class,
+                () -> orderService.placeOrder(userId));
+
+        // Проверки
+        assertEquals("Not enough stock for products [5]", exception.getMessage());
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(cartService, never()).clearCart(anyLong());
+        verify(catalogVersion, never()).productsChanged();
     }
 
     @Test
@@ -149,15 +192,9 @@ class OrderServiceImplTest {
         order.setOrderId(orderId);
         order.setTotalAmount(new BigDecimal(1000));
 
-        OrderDto dto = new OrderDto();
-        dto.setOrderId(orderId);
-        dto.setTotalAmount(new BigDecimal(1000));
-
         // Настройка моков
         when(orderRepository.findById(anyLong()))
                 .thenReturn(Optional.of(order));
-        when(modelMapper.map(any(Order.class), eq(OrderDto.class)))
-                .thenReturn(dto);
 
         // Выполнение метода
         OrderDto orderDto = orderService.getOrder(orderId);
@@ -0,0 +1,145 @@
+package com.dailycodework.dreamshops.service.order;
+
+import com.dailycodework.dreamshops.mapper.CartMapper;
+import com.dailycodework.dreamshops.mapper.ImageMapper;
+import com.dailycodework.dreamshops.mapper.OrderMapper;
+import com.dailycodework.dreamshops.mapper.ProductMapper;
+import com.dailycodework.dreamshops.model.Cart;
+import com.dailycodework.dreamshops.model.CartItem;
+import com.dailycodework.dreamshops.model.Category;
+import com.dailycodework.dreamshops.model.Order;
+import com.dailycodework.dreamshops.model.OrderItem;
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.model.User;
+import com.dailycodework.dreamshops.repository.CartRepository;
+import com.dailycodework.dreamshops.repository.CategoryRepository;
+import com.dailycodework.dreamshops.repository.OrderRepository;
+import com.dailycodework.dreamshops.repository.ProductRepository;
+import com.dailycodework.dreamshops.repository.UserRepository;
+import com.dailycodework.dreamshops.service.cart.CartItemService;
+import com.dailycodework.dreamshops.service.cart.CartServiceImpl;
+import com.dailycodework.dreamshops.service.cart.WriteBehindCartItemService;
+import com.dailycodework.dreamshops.service.cart.WriteBehindCartService;
+import com.dailycodework.dreamshops.service.cart.WriteBehindCartStore;
+import com.dailycodework.dreamshops.service.catalog.CatalogVersion;
+import com.dailycodework.dreamshops.service.product.ProductServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doAnswer;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true",
+        "cart.write-behind.enabled=true"
+})
+@Import({OrderServiceImpl.class, CartServiceImpl.class, ProductServiceImpl.class,
+        WriteBehindCartService.class, WriteBehindCartItemService.class, WriteBehindCartStore.class,
+        OrderMapper.class, CartMapper.class, ProductMapper.class, ImageMapper.class,
+        CatalogVersion.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderServiceImplWriteBehindTest {
+
+    @Autowired
+    private OrderServiceImpl orderService;
+    @Autowired
+    private CartItemService cartItemService;
+    @Autowired
+    private WriteBehindCartStore cartStore;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @SpyBean
+    private CatalogVersion catalogVersion;
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        cartRepository.deleteAll();
+        userRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    public void placeOrder_WriteDuringCheckoutIsRejectedAndNotLost() throws Exception {
+        // Arrange
+        Category category = categoryRepository.save(new Category("Some category"));
+        Product ordered = productRepository.save(new Product("Ordered product", "Some brand",
+                new BigDecimal("10.00"), 10, "Some description", category));
+        Product addedLater = productRepository.save(new Product("Added later", "Some brand",
+                new BigDecimal("5.00"), 10, "Some description", category));
+        User user = createUserWithCart(ordered);
+        Long cartId = cartRepository.findByUserId(user.getId()).getId();
+        // изменение корзины в памяти, которое оформление заказа должно записать
+        cartItemService.addItemToCart(cartId, ordered.getId(), 1);
+
+        // изменение из другого потока приходит, пока заказ оформляется (между списанием остатков и очисткой корзины)
+        AtomicReference<Throwable> concurrentWriteError = new AtomicReference<>();
+        doAnswer(invocation -> {
+            CompletableFuture.runAsync(() -> cartItemService.addItemToCart(cartId, addedLater.getId(), 1))
+                    .exceptionally(e -> {
+                        concurrentWriteError.set(e.getCause());
+                        return null;
+                    })
+                    .get();
+            return invocation.callRealMethod();
+        }).when(catalogVersion).productsChanged();
+
+        // Act
+        Order order = orderService.placeOrder(user.getId());
+
+        // Assert
+        assertInstanceOf(ConcurrencyFailureException.class, concurrentWriteError.get());
+        assertEquals(2, order.getOrderItems().stream().mapToInt(OrderItem::getQuantity).sum());
+        assertTrue(cartRepository.findWithItemsById(cartId).orElseThrow().getItems().isEmpty());
+
+        // после оформления корзина снова принимает изменения и не возвращает заказанные позиции
+        cartItemService.addItemToCart(cartId, addedLater.getId(), 1);
+        cartStore.flushAll();
+        Cart cart = cartRepository.findWithItemsById(cartId).orElseThrow();
+        assertEquals(Map.of(addedLater.getId(), 1), cart.getItems().stream()
+                .collect(Collectors.toMap(item -> item.getProduct().getId(), CartItem::getQuantity)));
+        assertEquals(0, new BigDecimal("5.00").compareTo(cart.getTotalAmount()));
+    }
+
+    private User createUserWithCart(Product product) {
+        User user = new User();
+        user.setEmail("user@email.com");
+        user = userRepository.save(user);
+
+        CartItem item = new CartItem();
+        item.setProduct(product);
+        item.setQuantity(1);
+        item.setUnitPrice(product.getPrice());
+        item.setTotalPrice();
+
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cart.addItem(item);
+        cartRepository.save(cart);
+        return user;
+    }
+}
@@ -0,0 +1,113 @@
+package com.dailycodework.dreamshops.service.product;
+
+import com.dailycodework.dreamshops.mapper.ImageMapper;
+import com.dailycodework.dreamshops.mapper.ProductMapper;
+import com.dailycodework.dreamshops.dto.ProductDto;
+import com.dailycodework.dreamshops.model.Category;
+import com.dailycodework.dreamshops.model.Image;
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.repository.ProductRepository;
+import com.dailycodework.dreamshops.service.catalog.CatalogVersion;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import javax.sql.rowset.serial.SerialBlob;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ProductServiceImpl.class, ProductMapper.class, ImageMapper.class,
+        CatalogVersion.class})
+class ProductServiceImplStatementCountTest {
+
+    @Autowired
+    private ProductServiceImpl productService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        category = new Category("Some category");
+        entityManager.persist(category);
+    }
+
+    @Test
+    public void getConvertedProducts_StatementCountDoesNotDependOnProductCount() throws Exception {
+        // Arrange
+        long statementsForFewProducts = countStatementsForConvertedProducts(5);
+        long statementsForManyProducts = countStatementsForConvertedProducts(50);
+
+        // Assert
+        assertEquals(statementsForFewProducts, statementsForManyProducts);
+    }
+
+    @Test
+    public void getConvertedProducts_GroupsImagesByProduct() throws Exception {
+        // Arrange
+        createProducts(3);
+
+        // Act
+        List<ProductDto> result = productService.getConvertedProducts(productRepository.findAll());
+
+        // Assert
+        assertEquals(3, result.size());
+        result.forEach(productDto -> {
+            assertEquals(2, productDto.getImages().size());
+            productDto.getImages().forEach(imageDto ->
+                    assertTrue(imageDto.getFileName().startsWith(productDto.getName())));
+        });
+    }
+
+    private long countStatementsForConvertedProducts(int productCount) throws Exception {
+        productRepository.deleteAll();
+        createProducts(productCount);
+
+        statistics.clear();
+        List<ProductDto> result = productService.getConvertedProducts(productRepository.findAll());
+        long statementCount = statistics.getPrepareStatementCount();
+
+        assertEquals(productCount, result.size());
+        return statementCount;
+    }
+
+    private void createProducts(int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            Product product = new Product("Product " + i, "Some brand", new BigDecimal("10.00"),
+                    10, "Some description", category);
+            entityManager.persist(product);
+
+            for (int j = 0; j < 2; j++) {
+                Image image = new Image();
+                image.setFileName(product.getName() + " image " + j);
+                image.setFileType("image/jpeg");
+                image.setProduct(product);
+                entityManager.persist(image);
+            }
+        }
+        entityManager.flush();
+        entityManager.createQuery("update ImageBlob b set b.image = :content")
+                .setParameter("content", new SerialBlob(new byte[]{1, 2, 3}))
+                .executeUpdate();
+        entityManager.clear();
+    }
+}
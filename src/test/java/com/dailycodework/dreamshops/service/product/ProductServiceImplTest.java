@@ -2,8 +2,11 @@ package com.dailycodework.dreamshops.service.product;
 
 import com.dailycodework.dreamshops.dto.ImageDto;
 import com.dailycodework.dreamshops.dto.ProductDto;
+import com.dailycodework.dreamshops.mapper.ImageMapper;
+import com.dailycodework.dreamshops.mapper.ProductMapper;
 import com.dailycodework.dreamshops.exceptions.AlreadyExistsException;
 import com.dailycodework.dreamshops.exceptions.ProductNotFoundException;
+import com.dailycodework.dreamshops.exceptions.VersionConflictException;
 import com.dailycodework.dreamshops.model.Category;
 import com.dailycodework.dreamshops.model.Image;
 import com.dailycodework.dreamshops.model.Product;
@@ -11,13 +14,22 @@ import com.dailycodework.dreamshops.repository.CategoryRepository;
 import com.dailycodework.dreamshops.repository.ImageRepository;
 import com.dailycodework.dreamshops.repository.ProductRepository;
 import com.dailycodework.dreamshops.request.AddProductRequest;
+import com.dailycodework.dreamshops.request.ProductFilterRequest;
 import com.dailycodework.dreamshops.request.ProductUpdateRequest;
+import com.dailycodework.dreamshops.service.catalog.CatalogChangedEvent;
+import com.dailycodework.dreamshops.service.catalog.CatalogVersion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.modelmapper.ModelMapper;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -26,6 +38,8 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class ProductServiceImplTest {
@@ -39,10 +53,16 @@ class ProductServiceImplTest {
     private ProductRepository productRepository;
     @Mock
     private CategoryRepository categoryRepository;
-    @Mock
-    private ModelMapper modelMapper;
+    @Spy
+    private ProductMapper productMapper = new ProductMapper();
+    @Spy
+    private ImageMapper imageMapper = new ImageMapper();
     @Mock
     private ImageRepository imageRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private CatalogVersion catalogVersion;
 
     @BeforeEach
     void setUp() {
@@ -69,6 +89,7 @@ class ProductServiceImplTest {
                 "Some description",
                 category
         );
+        savedProduct.setId(1L);
 
         // Mock the calls
         when(productRepository.existsByNameAndBrand(productRequest.getName(), productRequest.getBrand()))
@@ -93,6 +114,9 @@ class ProductServiceImplTest {
         verify(categoryRepository, times(1)).findByName(productRequest.getCategory().getName());
         verify(categoryRepository, never()).save(category);
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(eventPublisher, times(1)).publishEvent(new CatalogChangedEvent(List.of(1L)));
+        verify(catalogVersion, times(1)).productsChanged();
+        verify(catalogVersion, never()).categoriesChanged();
     }
 
     @Test
@@ -145,6 +169,7 @@ class ProductServiceImplTest {
                 "Some description",
                 category
         );
+        savedProduct.setId(1L);
 
         // Mock the calls
         when(productRepository.existsByNameAndBrand(productRequest.getName(), productRequest.getBrand()))
@@ -171,6 +196,9 @@ class ProductServiceImplTest {
         verify(categoryRepository, times(1)).findByName(productRequest.getCategory().getName());
         verify(categoryRepository, times(1)).save(any(Category.class));
         verify(productRepository, times(1)).save(any(Product.class));
+        // новая категория появляется в списке категорий
+        verify(catalogVersion, times(1)).categoriesChanged();
+        verify(catalogVersion, times(1)).productsChanged();
     }
 
 
@@ -250,6 +278,8 @@ class ProductServiceImplTest {
         // Then
         verify(productRepository, times(1)).findById(productId);
         verify(productRepository, times(1)).delete(savedProduct);
+        verify(eventPublisher, times(1)).publishEvent(new CatalogChangedEvent(List.of(productId)));
+        verify(catalogVersion, times(1)).productsChanged();
     }
 
     @Test
@@ -271,6 +301,7 @@ class ProductServiceImplTest {
 
         verify(productRepository, times(1)).findById(productId);
         verify(productRepository, never()).delete(any(Product.class));
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
@@ -286,6 +317,7 @@ class ProductServiceImplTest {
         requestProduct.setInventory(20);
         requestProduct.setDescription("Some description");
         requestProduct.setCategory(category);
+        requestProduct.setVersion(0L);
 
         Product savedProduct = new Product(
                 "Some name",
@@ -319,6 +351,8 @@ class ProductServiceImplTest {
         verify(productRepository, times(1)).save(any(Product.class));
         verify(categoryRepository, times(1)).findByName(requestProduct.getCategory().getName());
         verify(categoryRepository, never()).save(any(Category.class));
+        verify(eventPublisher, times(1)).publishEvent(new CatalogChangedEvent(List.of(productId)));
+        verify(catalogVersion, times(1)).productsChanged();
     }
 
     @Test
@@ -334,6 +368,7 @@ class ProductServiceImplTest {
         requestProduct.setInventory(20);
         requestProduct.setDescription("Some description");
         requestProduct.setCategory(category);
+        requestProduct.setVersion(0L);
 
         // Mock the calls
         when(productRepository.findById(productId))
@@ -352,6 +387,67 @@ class ProductServiceImplTest {
         verify(categoryRepository, never()).save(any(Category.class));
     }
 
+    @Test
+    public void updateProductById_WhenProductWasChangedConcurrently() {
+        // Given
+        Long productId = 1L;
+        Product savedProduct = new Product("Some name", "Some brand", new BigDecimal("123.00"), 18,
+                "Some description", new Category("Some category"));
+        savedProduct.setVersion(3);
+
+        ProductUpdateRequest requestProduct = new ProductUpdateRequest();
+        requestProduct.setName("Other name");
+        requestProduct.setInventory(20);
+        requestProduct.setVersion(2L);
+
+        // Mock the calls
+        when(productRepository.findById(productId))
+                .thenReturn(Optional.of(savedProduct));
+
+        // When
+        assertThrows(VersionConflictException.class, () -> productService.updateProduct(requestProduct, productId));
+
+        // Then
+        assertEquals("Some name", savedProduct.getName());
+        assertEquals(18, savedProduct.getInventory());
+        verify(productRepository, never()).save(any(Product.class));
+        verify(catalogVersion, never()).productsChanged();
+    }
+
+    @Test
+    public void updateProductById_WhenVersionIsMissing_OverwritesProduct() {
+        // Given
+        Long productId = 1L;
+        Category category = new Category("Some category");
+        Product savedProduct = new Product("Old name", "Some brand", new BigDecimal("123.00"), 18,
+                "Some description", category);
+        savedProduct.setVersion(3);
+
+        ProductUpdateRequest requestProduct = new ProductUpdateRequest();
+        requestProduct.setName("Some name");
+        requestProduct.setBrand("Some brand");
+        requestProduct.setPrice(new BigDecimal("123.00"));
+        requestProduct.setInventory(20);
+        requestProduct.setDescription("Some description");
+        requestProduct.setCategory(category);
+
+        when(productRepository.findById(productId))
+                .thenReturn(Optional.of(savedProduct));
+        when(categoryRepository.findByName(category.getName()))
+                .thenReturn(category);
+        when(productRepository.save(any(Product.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Product getProduct = productService.updateProduct(requestProduct, productId);
+
+        // Then
+        assertEquals("Some name", getProduct.getName());
+        assertEquals(20, getProduct.getInventory());
+        verify(productRepository, times(1)).save(savedProduct);
+        verify(catalogVersion, times(1)).productsChanged();
+    }
+
     @Test
     public void updateProductById_WhenProductExistsAndCategoryDoesNotExists() {
         // Given
@@ -373,6 +469,7 @@ class ProductServiceImplTest {
         requestProduct.setInventory(20);
         requestProduct.setDescription("Some description");
         requestProduct.setCategory(category);
+        requestProduct.setVersion(0L);
 
         // Mock the calls
         when(productRepository.findById(productId))
@@ -406,7 +503,8 @@ class ProductServiceImplTest {
         products.add(new Product());
         products.add(new Product());
 
-        when(productRepository.findAll()).thenReturn(products);
+        when(productRepository.findAllBy(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(products));
 
         // Act
         List<Product> result = productService.getAllProducts();
@@ -414,14 +512,15 @@ class ProductServiceImplTest {
         // Assert
         assertEquals(2, result.size());
 
-        verify(productRepository, times(1)).findAll();
+        verify(productRepository, times(1))
+                .findAllBy(PageRequest.of(0, ProductServiceImpl.MAX_UNPAGED_PRODUCTS, Sort.by("id")));
     }
 
     @Test
     public void getAllProduct_WhenProductsDoesNotExists() {
         // Arrange
-        when(productRepository.findAll())
-                .thenReturn(new ArrayList<>());
+        when(productRepository.findAllBy(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(new ArrayList<>()));
 
         // Act
         List<Product> result = productService.getAllProducts();
@@ -429,7 +528,25 @@ class ProductServiceImplTest {
         // Assert
         assertEquals(0, result.size());
 
-        verify(productRepository, times(1)).findAll();
+        verify(productRepository, times(1)).findAllBy(any(Pageable.class));
+    }
+
+    @Test
+    public void filterProducts_QueriesRepositoryWithSpecification() {
+        // Arrange
+        ProductFilterRequest filter = new ProductFilterRequest();
+        filter.setBrand("Samsung");
+        Pageable pageable = PageRequest.of(1, 20, Sort.by("price"));
+        SliceImpl<Product> slice = new SliceImpl<>(List.of(new Product()), pageable, true);
+
+        when(productRepository.findSliceBy(any(), eq(pageable))).thenReturn(slice);
+
+        // Act
+        Slice<Product> result = productService.filterProducts(filter, pageable);
+
+        // Assert
+        assertSame(slice, result);
+        verify(productRepository).findSliceBy(any(), eq(pageable));
     }
 
     @Test
@@ -667,9 +784,7 @@ class ProductServiceImplTest {
         Product product = new Product();
         products.add(product);
 
-        when(modelMapper.map(product, ProductDto.class))
-                .thenReturn(new ProductDto());
-        when(imageRepository.findByProductId(product.getId()))
+        when(imageRepository.findByProductIdIn(anyList()))
                 .thenReturn(new ArrayList<>());
 
         // Act
@@ -677,6 +792,9 @@ class ProductServiceImplTest {
 
         // Assert
         assertEquals(1, result.size());
+
+        verify(imageRepository, times(1)).findByProductIdIn(anyList());
+        verify(imageRepository, never()).findByProductId(any());
     }
 
     @Test
@@ -717,8 +835,6 @@ class ProductServiceImplTest {
         productDto.setImages(imagesDto);
 
 
-        when(modelMapper.map(savedProduct, ProductDto.class))
-                .thenReturn(productDto);
         when(imageRepository.findByProductId(savedProduct.getId()))
                 .thenReturn(images);
 
@@ -742,6 +858,4 @@ class ProductServiceImplTest {
             assert true;
         }
     }
-
-
-}
\ No newline at end of file
+}
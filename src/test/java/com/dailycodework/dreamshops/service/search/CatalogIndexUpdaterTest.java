@@ -0,0 +1,68 @@
+package com.dailycodework.dreamshops.service.search;
+
+import com.dailycodework.dreamshops.model.Category;
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.repository.ProductRepository;
+import com.dailycodework.dreamshops.service.catalog.CatalogChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class CatalogIndexUpdaterTest {
+    @InjectMocks
+    private CatalogIndexUpdater catalogIndexUpdater;
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+    @Mock
+    private ProductSuggestionIndex productSuggestionIndex;
+    @Mock
+    private ProductFacetIndex productFacetIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void onCatalogChanged_ReindexesExistingProductsAndRemovesDeletedOnes() {
+        // Arrange
+        Product product = new Product("Galaxy A54", "Samsung", new BigDecimal("100.00"), 1, "Some description",
+                new Category("Смартфоны"));
+        product.setId(1L);
+        when(productRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(product));
+
+        // Act
+        catalogIndexUpdater.onCatalogChanged(new CatalogChangedEvent(List.of(1L, 2L)));
+
+        // Assert
+        verify(productSearchIndex).index(product);
+        verify(productSuggestionIndex).index(product);
+        verify(productFacetIndex).index(product);
+        verify(productSearchIndex).remove(2L);
+        verify(productSuggestionIndex).remove(2L);
+        verify(productFacetIndex).remove(2L);
+        verify(productSearchIndex, never()).remove(1L);
+    }
+
+    @Test
+    public void onCatalogChanged_WhenNoProductsChanged_DoesNotQueryProducts() {
+        // Act
+        catalogIndexUpdater.onCatalogChanged(new CatalogChangedEvent(List.of()));
+
+        // Assert
+        verify(productRepository, never()).findAllById(anyCollection());
+        verify(productSearchIndex, never()).index(any());
+    }
+}
@@ -0,0 +1,91 @@
+package com.dailycodework.dreamshops.service.search;
+
+import com.dailycodework.dreamshops.mapper.ImageMapper;
+import com.dailycodework.dreamshops.mapper.ProductMapper;
+import com.dailycodework.dreamshops.model.Category;
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.request.AddProductRequest;
+import com.dailycodework.dreamshops.service.catalog.CatalogVersion;
+import com.dailycodework.dreamshops.service.category.CategoryServiceImpl;
+import com.dailycodework.dreamshops.service.product.ProductServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+// индексы обновляются после фиксации, поэтому тест работает без общей транзакции
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ProductServiceImpl.class, CategoryServiceImpl.class, ProductMapper.class, ImageMapper.class,
+        CatalogVersion.class, CatalogIndexUpdater.class,
+        ProductSearchIndex.class, ProductSuggestionIndex.class, ProductFacetIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogIndexUpdaterTransactionTest {
+
+    @Autowired
+    private ProductServiceImpl productService;
+    @Autowired
+    private CategoryServiceImpl categoryService;
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    @Autowired
+    private ProductSuggestionIndex productSuggestionIndex;
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+    @MockBean
+    private TaskScheduler taskScheduler;
+
+    @BeforeEach
+    void setUp() {
+        // отложенная перестройка подсказок выполняется сразу
+        when(taskScheduler.schedule(any(Runnable.class), any(Instant.class))).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        });
+    }
+
+    @Test
+    public void categoryChanges_ReachIndexesAfterCommit() {
+        // Arrange
+        AddProductRequest request = new AddProductRequest();
+        request.setName("Galaxy A54");
+        request.setBrand("Samsung");
+        request.setPrice(new BigDecimal("30000.00"));
+        request.setInventory(5);
+        request.setDescription("Смартфон");
+        request.setCategory(new Category("Телефоны"));
+        Product product = productService.addProduct(request);
+        Long categoryId = product.getCategory().getId();
+        assertEquals(List.of(product.getId()), productSearchIndex.search("galaxy", 10));
+        assertEquals(List.of("Galaxy A54"), productSuggestionIndex.suggest("gal", 10));
+
+        // Act: переименование категории
+        categoryService.updateCategory(new Category("Мобильные"), categoryId);
+
+        // Assert
+        assertEquals(List.of(product.getId()), productSearchIndex.search("мобильные", 10));
+        assertTrue(productSearchIndex.search("телефоны", 10).isEmpty());
+        assertEquals(1, productFacetIndex.facets(null, null, List.of("Мобильные"), null).getTotal());
+        assertEquals(0, productFacetIndex.facets(null, null, List.of("Телефоны"), null).getTotal());
+
+        // Act: удаление категории удаляет и ее товары
+        categoryService.deleteCategoryById(categoryId);
+
+        // Assert
+        assertTrue(productSearchIndex.search("galaxy", 10).isEmpty());
+        assertTrue(productSuggestionIndex.suggest("gal", 10).isEmpty());
+        assertEquals(0, productFacetIndex.facets(null, null, null, null).getTotal());
+    }
+}
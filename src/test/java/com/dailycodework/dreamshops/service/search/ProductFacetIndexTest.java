@@ -0,0 +1,136 @@
+package com.dailycodework.dreamshops.service.search;
+
+import com.dailycodework.dreamshops.dto.ProductFacetsDto;
+import com.dailycodework.dreamshops.model.Category;
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProductFacetIndexTest {
+    private final Category phones = new Category("Мобильные телефоны");
+    private final Category tvs = new Category("Телевизоры и аудио");
+
+    private ProductRepository productRepository;
+    private ProductFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        index = new ProductFacetIndex(productRepository, List.of(new BigDecimal("30000"), new BigDecimal("1000")));
+        index.index(product(1L, "Samsung", phones, "35000"));
+        index.index(product(2L, "Apple", phones, "25000"));
+        index.index(product(3L, "Samsung", tvs, "40000"));
+        index.index(product(4L, "Sony", tvs, "500"));
+    }
+
+    @Test
+    public void facets_WithoutFilters_CountsAllProducts() {
+        // Act
+        ProductFacetsDto result = index.facets(null, null, null, null);
+
+        // Assert
+        assertEquals(4, result.getTotal());
+        assertEquals(List.of("Samsung", "Apple", "Sony"), List.copyOf(result.getBrands().keySet()));
+        assertEquals(Map.of("Samsung", 2, "Apple", 1, "Sony", 1), result.getBrands());
+        assertEquals(Map.of("Мобильные телефоны", 2, "Телевизоры и аудио", 2), result.getCategories());
+        assertEquals(List.of("0-1000", "1000-30000", "30000+"), List.copyOf(result.getPrices().keySet()));
+        assertEquals(Map.of("0-1000", 1, "1000-30000", 1, "30000+", 2), result.getPrices());
+    }
+
+    @Test
+    public void facets_FilterDoesNotNarrowItsOwnFacet() {
+        // Act
+        ProductFacetsDto result = index.facets(null, List.of("Samsung"), null, null);
+
+        // Assert
+        assertEquals(2, result.getTotal());
+        assertEquals(Map.of("Samsung", 2, "Apple", 1, "Sony", 1), result.getBrands());
+        assertEquals(Map.of("Мобильные телефоны", 1, "Телевизоры и аудио", 1), result.getCategories());
+        assertEquals(Map.of("0-1000", 0, "1000-30000", 0, "30000+", 2), result.getPrices());
+    }
+
+    @Test
+    public void facets_IntersectsFacetsAndUnitesValuesOfOneFacet() {
+        // Act
+        ProductFacetsDto result = index.facets(null, List.of("Samsung", "Sony"), List.of("Телевизоры и аудио"),
+                List.of("30000+"));
+
+        // Assert
+        assertEquals(1, result.getTotal());
+        assertEquals(Map.of("Samsung", 1), result.getBrands());
+        assertEquals(Map.of("Мобильные телефоны", 1, "Телевизоры и аудио", 1), result.getCategories());
+    }
+
+    @Test
+    public void facets_RestrictedToGivenProducts() {
+        // Act
+        ProductFacetsDto result = index.facets(List.of(1L, 4L, 99L), null, null, null);
+
+        // Assert
+        assertEquals(2, result.getTotal());
+        assertEquals(Map.of("Samsung", 1, "Sony", 1), result.getBrands());
+    }
+
+    @Test
+    public void facets_WhenPriceRangeIsUnknown() {
+        // Act and Assert
+        assertThrows(IllegalArgumentException.class, () -> index.facets(null, null, null, List.of("0-5")));
+    }
+
+    @Test
+    public void index_MovesChangedProductBetweenFacetValues() {
+        // Act
+        index.index(product(2L, "Samsung", tvs, "45000"));
+
+        // Assert
+        ProductFacetsDto result = index.facets(null, null, null, null);
+        assertEquals(4, result.getTotal());
+        assertEquals(Map.of("Samsung", 3, "Sony", 1), result.getBrands());
+        assertEquals(Map.of("Телевизоры и аудио", 3, "Мобильные телефоны", 1), result.getCategories());
+    }
+
+    @Test
+    public void remove_ProductIsNoLongerCounted() {
+        // Act
+        index.remove(4L);
+
+        // Assert
+        ProductFacetsDto result = index.facets(null, null, null, null);
+        assertEquals(3, result.getTotal());
+        assertFalse(result.getBrands().containsKey("Sony"));
+        assertEquals(0, result.getPrices().get("0-1000"));
+    }
+
+    @Test
+    public void rebuild_ReplacesIndexWithProductsFromRepository() {
+        // Arrange
+        when(productRepository.findAllByOrderByIdAsc(any(ScrollPosition.class), any(Limit.class)))
+                .thenReturn(Window.from(List.of(product(5L, "LG", tvs, "20000")), ScrollPosition::offset));
+
+        // Act
+        index.rebuild();
+
+        // Assert
+        ProductFacetsDto result = index.facets(null, null, null, null);
+        assertEquals(1, result.getTotal());
+        assertEquals(Map.of("LG", 1), result.getBrands());
+    }
+
+    private static Product product(Long id, String brand, Category category, String price) {
+        Product product = new Product("Some product", brand, new BigDecimal(price), 10, "Some description", category);
+        product.setId(id);
+        return product;
+    }
+}
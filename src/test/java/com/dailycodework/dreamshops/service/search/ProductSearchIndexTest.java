@@ -0,0 +1,198 @@
+package com.dailycodework.dreamshops.service.search;
+
+import com.dailycodework.dreamshops.model.Category;
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProductSearchIndexTest {
+    private ProductRepository productRepository;
+    private ProductSearchIndex index;
+    private final Category phones = new Category("Мобильные телефоны");
+    private final Category computers = new Category("Компьютеры и ноутбуки");
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        index = new ProductSearchIndex(productRepository);
+    }
+
+    @Test
+    public void search_RanksMatchInNameAboveMatchInDescription() {
+        // Arrange
+        index.index(product(1L, "Case", "Spigen", "Case for Galaxy A54", phones));
+        index.index(product(2L, "Galaxy A54", "Samsung", "Smartphone", phones));
+
+        // Act
+        List<Long> result = index.search("galaxy", 10);
+
+        // Assert
+        assertEquals(List.of(2L, 1L), result);
+    }
+
+    @Test
+    public void search_FoldsCaseOfCyrillicAndLatin() {
+        // Arrange
+        index.index(product(1L, "Galaxy A54", "Samsung", "Smartphone", phones));
+        index.index(product(2L, "Inspiron 15", "Dell", "Laptop", computers));
+
+        // Act and Assert
+        assertEquals(List.of(1L), index.search("МОБИЛЬНЫЕ", 10));
+        assertEquals(List.of(2L), index.search("dELL", 10));
+    }
+
+    @Test
+    public void search_MatchesWordPrefix() {
+        // Arrange
+        index.index(product(1L, "Inspiron 15", "Dell", "Laptop", computers));
+        index.index(product(2L, "Galaxy A54", "Samsung", "Smartphone", phones));
+
+        // Act
+        List<Long> result = index.search("ноут", 10);
+
+        // Assert
+        assertEquals(List.of(1L), result);
+    }
+
+    @Test
+    public void search_RanksProductMatchingAllWordsFirst() {
+        // Arrange
+        index.index(product(1L, "Galaxy Tab", "Samsung", "Tablet", computers));
+        index.index(product(2L, "Galaxy A54", "Samsung", "Smartphone", phones));
+        index.index(product(3L, "iPhone 13", "Apple", "Smartphone", phones));
+
+        // Act
+        List<Long> result = index.search("galaxy телефон", 10);
+
+        // Assert
+        assertEquals(2L, result.get(0));
+        assertEquals(3, result.size());
+    }
+
+    @Test
+    public void index_ReplacesPreviousVersionOfProduct() {
+        // Arrange
+        index.index(product(1L, "Galaxy A54", "Samsung", "Smartphone", phones));
+
+        // Act
+        index.index(product(1L, "iPhone 13", "Apple", "Smartphone", phones));
+
+        // Assert
+        assertTrue(index.search("galaxy", 10).isEmpty());
+        assertEquals(List.of(1L), index.search("iphone", 10));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void remove_ProductIsNoLongerFound() {
+        // Arrange
+        index.index(product(1L, "Galaxy A54", "Samsung", "Smartphone", phones));
+
+        // Act
+        index.remove(1L);
+
+        // Assert
+        assertTrue(index.search("galaxy", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void rebuild_IndexesAllProductsFromRepository() {
+        // Arrange
+        Product first = product(1L, "Galaxy A54", "Samsung", "Smartphone", phones);
+        Product second = product(2L, "Inspiron 15", "Dell", "Laptop", computers);
+        when(productRepository.findAllByOrderByIdAsc(any(ScrollPosition.class), any(Limit.class)))
+                .thenReturn(Window.from(List.of(first), i -> ScrollPosition.offset(i), true))
+                .thenReturn(Window.from(List.of(second), i -> ScrollPosition.offset(i + 1), false));
+        index.index(product(3L, "iPhone 13", "Apple", "Smartphone", phones));
+
+        // Act
+        index.rebuild();
+
+        // Assert
+        assertEquals(2, index.size());
+        assertEquals(List.of(2L), index.search("dell", 10));
+        assertTrue(index.search("iphone", 10).isEmpty());
+    }
+
+    @Test
+    public void index_IgnoresOlderVersionOfProduct() {
+        // Arrange
+        Product updated = product(1L, "iPhone 13", "Apple", "Smartphone", phones);
+        updated.setVersion(2);
+        Product stale = product(1L, "Galaxy A54", "Samsung", "Smartphone", phones);
+        stale.setVersion(1);
+        index.index(updated);
+
+        // Act: обновление, прочитанное раньше, приходит последним
+        index.index(stale);
+
+        // Assert
+        assertEquals(List.of(1L), index.search("iphone", 10));
+        assertTrue(index.search("galaxy", 10).isEmpty());
+    }
+
+    @Test
+    public void index_AfterRemove_DoesNotRestoreProduct() {
+        // Arrange
+        Product product = product(1L, "Galaxy A54", "Samsung", "Smartphone", phones);
+        index.index(product);
+        index.remove(1L);
+
+        // Act
+        index.index(product);
+
+        // Assert
+        assertTrue(index.search("galaxy", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void rebuild_DoesNotBlockSearchAndKeepsChangesMadeDuringRebuild() {
+        // Arrange
+        index.index(product(1L, "Galaxy A54", "Samsung", "Smartphone", phones));
+        Product scanned = product(1L, "Galaxy A54", "Samsung", "Smartphone", phones);
+        Product removed = product(2L, "Inspiron 15", "Dell", "Laptop", computers);
+        Product updated = product(1L, "iPhone 13", "Apple", "Smartphone", phones);
+        updated.setVersion(1);
+        List<Long> foundDuringRebuild = new ArrayList<>();
+        when(productRepository.findAllByOrderByIdAsc(any(ScrollPosition.class), any(Limit.class))).thenAnswer(invocation -> {
+            // поиск из другого потока не ждет окончания чтения товаров
+            foundDuringRebuild.addAll(CompletableFuture.supplyAsync(() -> index.search("galaxy", 10))
+                    .get(5, TimeUnit.SECONDS));
+            index.index(updated);
+            index.remove(2L);
+            return Window.from(List.of(scanned, removed), i -> ScrollPosition.offset(i), false);
+        });
+
+        // Act
+        index.rebuild();
+
+        // Assert
+        assertEquals(List.of(1L), foundDuringRebuild);
+        assertEquals(1, index.size());
+        assertEquals(List.of(1L), index.search("iphone", 10));
+        assertTrue(index.search("galaxy", 10).isEmpty());
+        assertTrue(index.search("dell", 10).isEmpty());
+    }
+
+    private static Product product(Long id, String name, String brand, String description, Category category) {
+        Product product = new Product(name, brand, new BigDecimal("10.00"), 10, description, category);
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,93 @@
+package com.dailycodework.dreamshops.service.search;
+
+import com.dailycodework.dreamshops.dto.ProductFacetsDto;
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ProductSearchServiceImplTest {
+    @InjectMocks
+    private ProductSearchServiceImpl productSearchService;
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+    @Mock
+    private ProductSuggestionIndex productSuggestionIndex;
+    @Mock
+    private ProductFacetIndex productFacetIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void searchProducts_ReturnsProductsInRelevanceOrder() {
+        // Arrange
+        Product first = new Product("Galaxy A54", "Samsung", new BigDecimal("100.00"), 1, "Some description", null);
+        first.setId(2L);
+        Product second = new Product("Galaxy Tab", "Samsung", new BigDecimal("200.00"), 1, "Some description", null);
+        second.setId(1L);
+        when(productSearchIndex.search("galaxy", 10)).thenReturn(List.of(2L, 1L));
+        when(productRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(second, first));
+
+        // Act
+        List<Product> result = productSearchService.searchProducts("galaxy", 10);
+
+        // Assert
+        assertEquals(List.of(first, second), result);
+    }
+
+    @Test
+    public void searchProducts_WhenNothingFound() {
+        // Arrange
+        when(productSearchIndex.search("galaxy", 10)).thenReturn(List.of());
+
+        // Act
+        List<Product> result = productSearchService.searchProducts("galaxy", 10);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(productRepository, never()).findAllById(anyList());
+    }
+
+    @Test
+    public void getProductFacets_WithQuery_CountsOnlyFoundProducts() {
+        // Arrange
+        ProductFacetsDto facets = new ProductFacetsDto(1, Map.of("Samsung", 1), Map.of(), Map.of());
+        when(productSearchIndex.search("galaxy", Integer.MAX_VALUE)).thenReturn(List.of(1L));
+        when(productFacetIndex.facets(List.of(1L), List.of("Samsung"), null, null)).thenReturn(facets);
+
+        // Act
+        ProductFacetsDto result = productSearchService.getProductFacets("galaxy", List.of("Samsung"), null, null);
+
+        // Assert
+        assertEquals(facets, result);
+    }
+
+    @Test
+    public void getProductFacets_WithoutQuery_CountsAllProducts() {
+        // Act
+        productSearchService.getProductFacets(" ", null, List.of("Электроника"), null);
+
+        // Assert
+        verify(productSearchIndex, never()).search(any(), anyInt());
+        verify(productFacetIndex).facets(null, null, List.of("Электроника"), null);
+    }
+}
@@ -0,0 +1,167 @@
+package com.dailycodework.dreamshops.service.search;
+
+import com.dailycodework.dreamshops.model.Product;
+import com.dailycodework.dreamshops.repository.OrderRepository;
+import com.dailycodework.dreamshops.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProductSuggestionIndexTest {
+    private ProductRepository productRepository;
+    private OrderRepository orderRepository;
+    private TaskScheduler taskScheduler;
+    private ProductSuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        orderRepository = mock(OrderRepository.class);
+        // отложенная перестройка дерева выполняется сразу
+        taskScheduler = mock(TaskScheduler.class);
+        when(taskScheduler.schedule(any(Runnable.class), any(Instant.class))).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        });
+        index = new ProductSuggestionIndex(productRepository, orderRepository, taskScheduler, Duration.ZERO,
+                Duration.ofSeconds(1));
+    }
+
+    @Test
+    public void rebuild_RanksProductsBySales() {
+        // Arrange
+        when(productRepository.findAllByOrderByIdAsc(any(ScrollPosition.class), any(Limit.class)))
+                .thenReturn(Window.from(List.of(product(1L, "Galaxy A54", "Samsung"),
+                        product(2L, "Galaxy Tab S9", "Samsung")), ScrollPosition::offset));
+        when(orderRepository.findProductSales()).thenReturn(List.of(sales(1L, 10L)));
+
+        // Act
+        index.rebuild();
+
+        // Assert
+        assertEquals(List.of("Galaxy A54", "Galaxy Tab S9"), index.suggest("GAL", 10));
+        assertEquals(List.of("Samsung"), index.suggest("sam", 10));
+    }
+
+    @Test
+    public void index_ChangedProductReplacesPreviousSuggestions() {
+        // Arrange
+        index.index(product(1L, "Galaxy A54", "Samsung"));
+
+        // Act
+        index.index(product(1L, "iPhone 13", "Apple"));
+
+        // Assert
+        assertTrue(index.suggest("gal", 10).isEmpty());
+        assertEquals(List.of("iPhone 13"), index.suggest("iph", 10));
+    }
+
+    @Test
+    public void index_MergesSuggestionsWithSameText() {
+        // Arrange
+        index.index(product(1L, "Galaxy A54", "Samsung"));
+        index.index(product(2L, "Galaxy Tab S9", "SAMSUNG"));
+        index.index(product(3L, "Sony", "Sony"));
+
+        // Act
+        List<String> result = index.suggest("s", 10);
+
+        // Assert
+        assertEquals(List.of("Samsung", "Sony", "Galaxy Tab S9"), result);
+    }
+
+    @Test
+    public void remove_ProductIsNoLongerSuggested() {
+        // Arrange
+        index.index(product(1L, "Galaxy A54", "Samsung"));
+
+        // Act
+        index.remove(1L);
+
+        // Assert
+        assertTrue(index.suggest("gal", 10).isEmpty());
+        assertTrue(index.suggest("sam", 10).isEmpty());
+    }
+
+    @Test
+    public void index_ChangesBeforeRebuildAreCoalesced() {
+        // Arrange
+        List<Runnable> scheduled = new ArrayList<>();
+        when(taskScheduler.schedule(any(Runnable.class), any(Instant.class))).thenAnswer(invocation -> {
+            scheduled.add(invocation.getArgument(0));
+            return null;
+        });
+
+        // Act
+        index.index(product(1L, "Galaxy A54", "Samsung"));
+        index.index(product(2L, "Galaxy Tab S9", "Samsung"));
+        index.remove(1L);
+
+        // Assert
+        assertEquals(1, scheduled.size());
+        assertTrue(index.suggest("gal", 10).isEmpty());
+        scheduled.get(0).run();
+        assertEquals(List.of("Galaxy Tab S9"), index.suggest("gal", 10));
+    }
+
+    @Test
+    public void rebuild_KeepsChangesMadeWhileProductsAreRead() {
+        // Arrange: товар 2 изменяется, а товар 1 удаляется, пока список товаров читается из базы
+        when(productRepository.findAllByOrderByIdAsc(any(ScrollPosition.class), any(Limit.class))).thenAnswer(invocation -> {
+            index.index(product(2L, "iPhone 13", "Apple"));
+            index.remove(1L);
+            return Window.from(List.of(product(1L, "Galaxy A54", "Samsung"),
+                    product(2L, "Galaxy Tab S9", "Samsung")), ScrollPosition::offset);
+        });
+        when(orderRepository.findProductSales()).thenReturn(List.of());
+
+        // Act
+        index.rebuild();
+
+        // Assert
+        assertTrue(index.suggest("gal", 10).isEmpty());
+        assertEquals(List.of("iPhone 13"), index.suggest("iph", 10));
+    }
+
+    @Test
+    public void suggest_WhenQueryIsBlank() {
+        // Arrange
+        index.index(product(1L, "Galaxy A54", "Samsung"));
+
+        // Act and Assert
+        assertTrue(index.suggest("  ", 10).isEmpty());
+    }
+
+    private static Product product(Long id, String name, String brand) {
+        Product product = new Product(name, brand, new BigDecimal("10.00"), 10, "Some description", null);
+        product.setId(id);
+        return product;
+    }
+
+    private static OrderRepository.ProductSales sales(Long productId, Long quantity) {
+        return new OrderRepository.ProductSales() {
+            @Override
+            public Long getProductId() {
+                return productId;
+            }
+
+            @Override
+            public Long getQuantity() {
+                return quantity;
+            }
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package com.dailycodework.dreamshops.service.search;
+
+import com.dailycodework.dreamshops.service.search.SuggestionTrie.Suggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestionTrieTest {
+
+    private final SuggestionTrie trie = SuggestionTrie.build(List.of(
+            new Suggestion("Galaxy A54", 5),
+            new Suggestion("Galaxy Tab S9", 12),
+            new Suggestion("Samsung", 17),
+            new Suggestion("Sony", 3),
+            new Suggestion("Inspiron 15 5000", 1),
+            new Suggestion("Игровая консоль", 2)));
+
+    @Test
+    public void suggest_ReturnsMatchesByDescendingWeight() {
+        // Act
+        List<Suggestion> result = trie.suggest("gal", 10);
+
+        // Assert
+        assertEquals(List.of(new Suggestion("Galaxy Tab S9", 12), new Suggestion("Galaxy A54", 5)), result);
+    }
+
+    @Test
+    public void suggest_MatchesBeginningOfAnyWord() {
+        // Act and Assert
+        assertEquals(List.of("Galaxy Tab S9"), texts(trie.suggest("tab", 10)));
+        assertEquals(List.of("Inspiron 15 5000"), texts(trie.suggest("15 5", 10)));
+        assertEquals(List.of("Игровая консоль"), texts(trie.suggest("конс", 10)));
+    }
+
+    @Test
+    public void suggest_PrefixEndingInsideCompressedEdge() {
+        // Act
+        List<Suggestion> result = trie.suggest("galaxy t", 10);
+
+        // Assert
+        assertEquals(List.of("Galaxy Tab S9"), texts(result));
+    }
+
+    @Test
+    public void suggest_ReturnsEachSuggestionOnce() {
+        // Arrange
+        SuggestionTrie repeatedWords = SuggestionTrie.build(List.of(new Suggestion("Mini mini", 1)));
+
+        // Act
+        List<Suggestion> result = repeatedWords.suggest("mini", 10);
+
+        // Assert
+        assertEquals(List.of("Mini mini"), texts(result));
+    }
+
+    @Test
+    public void suggest_StopsAtLimit() {
+        // Act
+        List<Suggestion> result = trie.suggest("s", 2);
+
+        // Assert
+        assertEquals(List.of("Samsung", "Galaxy Tab S9"), texts(result));
+    }
+
+    @Test
+    public void suggest_WhenNothingMatches() {
+        // Act and Assert
+        assertTrue(trie.suggest("apple", 10).isEmpty());
+        assertTrue(trie.suggest("galaxyx", 10).isEmpty());
+        assertTrue(SuggestionTrie.EMPTY.suggest("a", 10).isEmpty());
+    }
+
+    private static List<String> texts(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::text).toList();
+    }
+}
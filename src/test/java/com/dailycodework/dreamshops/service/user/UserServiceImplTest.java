@@ -1,19 +1,24 @@
 package com.dailycodework.dreamshops.service.user;
 
 import com.dailycodework.dreamshops.dto.UserDto;
+import com.dailycodework.dreamshops.mapper.CartMapper;
+import com.dailycodework.dreamshops.mapper.OrderMapper;
+import com.dailycodework.dreamshops.mapper.ProductMapper;
+import com.dailycodework.dreamshops.mapper.UserMapper;
 import com.dailycodework.dreamshops.exceptions.AlreadyExistsException;
 import com.dailycodework.dreamshops.exceptions.ResourceNotFoundException;
 import com.dailycodework.dreamshops.model.User;
 import com.dailycodework.dreamshops.repository.UserRepository;
 import com.dailycodework.dreamshops.request.CreateUserRequest;
 import com.dailycodework.dreamshops.request.UserUpdateRequest;
+import com.dailycodework.dreamshops.security.user.ShopUserDetailsCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
-import org.modelmapper.ModelMapper;
+import org.mockito.Spy;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -29,10 +34,12 @@ class UserServiceImplTest {
 
     @Mock
     private UserRepository userRepository;
-    @Mock
-    private ModelMapper modelMapper;
+    @Spy
+    private UserMapper userMapper = new UserMapper(new OrderMapper(), new CartMapper(new ProductMapper()));
     @Mock
     private PasswordEncoder passwordEncoder;
+    @Mock
+    private ShopUserDetailsCache userDetailsCache;
 
     @BeforeEach
     void setUp() {
@@ -196,6 +203,7 @@ class UserServiceImplTest {
         // Assert
         verify(userRepository).findById(userId);
         verify(userRepository).delete(any(User.class));
+        verify(userDetailsCache).evict(any());
     }
 
     @Test
@@ -230,16 +238,13 @@ class UserServiceImplTest {
         userDto.setLastName("Last Name");
         userDto.setEmail("email@example.com");
 
-        when(modelMapper.map(user, UserDto.class))
-                .thenReturn(userDto);
-
         // Act
         UserDto result = userService.convertUserToDto(user);
 
         // Assert
         assertEquals(userDto, result);
 
-        verify(modelMapper).map(user, UserDto.class);
+        verify(userMapper).toDto(user);
     }
 
     @Test